@@ -0,0 +1,385 @@
+package dev.sweety.sql4j.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+// writes <Entity>_Sql4JMapper next to every entity so TableManager can skip field discovery and reflective access:
+// the mapper carries each column's DDL, codec and keys as well as direct field reads and writes.
+// The annotations are matched by name, the processor does not depend on the library itself.
+// Entities it cannot reach from generated code (private fields, no usable constructor, records, generics)
+// are left to reflection at runtime
+@SupportedAnnotationTypes({
+        MapperProcessor.INFO, MapperProcessor.DATA_FIELD, MapperProcessor.PRIMARY_KEY,
+        MapperProcessor.FOREIGN_KEY, MapperProcessor.SQL_TYPE, MapperProcessor.FIELD_ADAPTER
+})
+public class MapperProcessor extends AbstractProcessor {
+
+    static final String INFO = "dev.sweety.sql4j.api.table.Info";
+    static final String DATA_FIELD = "dev.sweety.sql4j.api.field.DataField";
+    static final String PRIMARY_KEY = "dev.sweety.sql4j.api.field.PrimaryKey";
+    static final String FOREIGN_KEY = "dev.sweety.sql4j.api.field.ForeignKey";
+    static final String SQL_TYPE = "dev.sweety.sql4j.api.adapter.SqlType";
+    static final String FIELD_ADAPTER = "dev.sweety.sql4j.api.adapter.FieldAdapter";
+
+    // same set as SqlUtils.isSqlField
+    private static final Set<String> FIELD_ANNOTATIONS = Set.of(DATA_FIELD, PRIMARY_KEY, FOREIGN_KEY, SQL_TYPE, FIELD_ADAPTER);
+
+    private static final String PERSISTENCE_CREATOR = "dev.sweety.sql4j.api.table.PersistenceCreator";
+    private static final String MAPPER = "dev.sweety.sql4j.api.table.EntityMapper";
+    private static final String COLUMN = "dev.sweety.sql4j.api.field.Column";
+    private static final String FETCH_MODE = "dev.sweety.sql4j.api.field.FetchMode";
+    private static final String SQL_UTILS = "dev.sweety.sql4j.api.SqlUtils";
+
+    // same mapping as SqlUtils.getType, anything else is stored as TEXT
+    private static final Map<String, String> SQL_TYPES = Map.ofEntries(
+            Map.entry("java.lang.String", "TEXT"),
+            Map.entry("int", "INTEGER"), Map.entry("java.lang.Integer", "INTEGER"),
+            Map.entry("long", "BIGINT"), Map.entry("java.lang.Long", "BIGINT"),
+            Map.entry("double", "DOUBLE"), Map.entry("java.lang.Double", "DOUBLE"),
+            Map.entry("float", "FLOAT"), Map.entry("java.lang.Float", "FLOAT"),
+            Map.entry("boolean", "BOOLEAN"), Map.entry("java.lang.Boolean", "BOOLEAN"),
+            Map.entry("byte", "TINYINT"), Map.entry("java.lang.Byte", "TINYINT"),
+            Map.entry("short", "SMALLINT"), Map.entry("java.lang.Short", "SMALLINT"),
+            Map.entry("char", "CHAR"), Map.entry("java.lang.Character", "CHAR"),
+            Map.entry("java.sql.Date", "DATE"), Map.entry("java.sql.Time", "TIME"),
+            Map.entry("java.sql.Timestamp", "TIMESTAMP"),
+            Map.entry("java.sql.Blob", "BLOB"), Map.entry("java.sql.Clob", "CLOB"),
+            Map.entry("java.math.BigDecimal", "DECIMAL"), Map.entry("java.math.BigInteger", "NUMERIC")
+    );
+
+    private static final String SUFFIX = "_Sql4JMapper";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        Set<TypeElement> entities = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                if (element instanceof TypeElement type) entities.add(type);
+                else if (element.getKind() == ElementKind.FIELD) entities.add((TypeElement) element.getEnclosingElement());
+            }
+        }
+
+        for (TypeElement entity : entities) {
+            if (generated.add(entity.getQualifiedName().toString())) generate(entity);
+        }
+        return false;
+    }
+
+    private void generate(TypeElement entity) {
+        Messager messager = processingEnv.getMessager();
+
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+            if (field.getAnnotationMirrors().stream().anyMatch(mirror -> FIELD_ANNOTATIONS.contains(name(mirror)))) fields.add(field);
+        }
+        if (!validate(entity, fields)) return;
+
+        String skipped = unreachable(entity, fields);
+        if (skipped != null) {
+            messager.printMessage(Diagnostic.Kind.NOTE, "Sql4J: no mapper generated for " + entity + ", " + skipped + "; it is mapped by reflection", entity);
+            return;
+        }
+
+        String pkg = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+        String binary = processingEnv.getElementUtils().getBinaryName(entity).toString();
+        String mapper = (pkg.isEmpty() ? binary : binary.substring(pkg.length() + 1)) + SUFFIX;
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(pkg.isEmpty() ? mapper : pkg + "." + mapper, entity).openWriter()) {
+            writer.write(source(entity, pkg, mapper, fields));
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Sql4J: cannot write " + mapper + ": " + e.getMessage(), entity);
+        }
+    }
+
+    // mistakes that would otherwise only surface when the table is created
+    private boolean validate(TypeElement entity, List<VariableElement> fields) {
+        Messager messager = processingEnv.getMessager();
+        boolean valid = true;
+
+        VariableElement primaryKey = null;
+        for (VariableElement field : fields) {
+            if (annotation(field, PRIMARY_KEY) != null) {
+                if (primaryKey != null) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, "Sql4J: " + entity + " declares more than one @PrimaryKey", field);
+                    valid = false;
+                }
+                primaryKey = field;
+            }
+
+            AnnotationMirror sqlType = annotation(field, SQL_TYPE);
+            if (sqlType != null && value(sqlType, "type").toString().isBlank()) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Sql4J: @SqlType needs a type", field);
+                valid = false;
+            }
+
+            AnnotationMirror adapter = annotation(field, FIELD_ADAPTER);
+            if (adapter != null && value(adapter, "adapter") instanceof DeclaredType type
+                    && !instantiable((TypeElement) type.asElement(), true)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Sql4J: adapter " + type + " needs a public no-argument constructor", field);
+                valid = false;
+            }
+        }
+
+        return valid;
+    }
+
+    private String unreachable(TypeElement entity, List<VariableElement> fields) {
+        if (entity.getKind() != ElementKind.CLASS) return "it is not a class";
+        if (entity.getModifiers().contains(Modifier.ABSTRACT)) return "it is abstract";
+        if (!entity.getTypeParameters().isEmpty()) return "it is generic";
+
+        if (entity.getNestingKind() == NestingKind.LOCAL || entity.getNestingKind() == NestingKind.ANONYMOUS) return "it is local";
+        if (entity.getNestingKind() == NestingKind.MEMBER && !entity.getModifiers().contains(Modifier.STATIC)) return "it is an inner class";
+        for (Element scope = entity; scope instanceof TypeElement type; scope = scope.getEnclosingElement()) {
+            if (type.getModifiers().contains(Modifier.PRIVATE)) return "it is private";
+        }
+
+        if (!instantiable(entity, false)) return "it has no non-private no-argument constructor";
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(entity.getEnclosedElements())) {
+            if (annotation(constructor, PERSISTENCE_CREATOR) != null) return "it is built through a @PersistenceCreator constructor";
+        }
+        if (fields.isEmpty()) return "it has no mapped fields";
+
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.PRIVATE)) return "field " + field.getSimpleName() + " is private";
+            if (field.getModifiers().contains(Modifier.STATIC)) return "field " + field.getSimpleName() + " is static";
+
+            // the mapper names the field's type and its adapter in code
+            if (field.asType() instanceof DeclaredType type && !accessible((TypeElement) type.asElement(), entity))
+                return "the type of field " + field.getSimpleName() + " is not accessible";
+            AnnotationMirror adapter = annotation(field, FIELD_ADAPTER);
+            if (adapter != null && value(adapter, "adapter") instanceof DeclaredType type && !accessible((TypeElement) type.asElement(), entity))
+                return "the adapter of field " + field.getSimpleName() + " is not accessible";
+        }
+        return null;
+    }
+
+    private boolean accessible(TypeElement type, TypeElement from) {
+        boolean samePackage = processingEnv.getElementUtils().getPackageOf(type).equals(processingEnv.getElementUtils().getPackageOf(from));
+        for (Element scope = type; scope instanceof TypeElement enclosing; scope = scope.getEnclosingElement()) {
+            Set<Modifier> modifiers = enclosing.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || !modifiers.contains(Modifier.PUBLIC) && !samePackage) return false;
+        }
+        return true;
+    }
+
+    private static boolean instantiable(TypeElement type, boolean publicOnly) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (!constructor.getParameters().isEmpty()) continue;
+            return publicOnly ? constructor.getModifiers().contains(Modifier.PUBLIC) : !constructor.getModifiers().contains(Modifier.PRIVATE);
+        }
+        return false;
+    }
+
+    private String source(TypeElement entity, String pkg, String mapper, List<VariableElement> fields) {
+        String type = entity.getQualifiedName().toString();
+        AnnotationMirror info = annotation(entity, INFO);
+        String table = info != null ? value(info, "name").toString() : entity.getSimpleName().toString();
+
+        StringBuilder source = new StringBuilder();
+        if (!pkg.isEmpty()) source.append("package ").append(pkg).append(";\n\n");
+
+        source.append("import ").append(SQL_UTILS).append(";\n");
+        source.append("import ").append(COLUMN).append(";\n");
+        source.append("import ").append(FETCH_MODE).append(";\n");
+        source.append("import ").append(MAPPER).append(";\n\n");
+        source.append("import java.util.List;\n\n");
+        source.append("// generated by the Sql4J annotation processor from ").append(type).append(", do not edit\n");
+        source.append("public final class ").append(mapper).append(" implements EntityMapper<").append(type).append("> {\n\n");
+
+        source.append("    private static final List<Column> COLUMNS = List.of(");
+        for (int i = 0; i < fields.size(); i++) {
+            source.append(i > 0 ? ",\n            " : "\n            ").append(column(fields.get(i)));
+        }
+        source.append("\n    );\n\n");
+
+        method(source, "Class<" + type + ">", "type()", "return " + type + ".class;");
+        method(source, "String", "table()", "return " + literal(table) + ";");
+        method(source, "List<Column>", "columns()", "return COLUMNS;");
+        method(source, type, "create()", "return new " + type + "();");
+
+        source.append("    @Override\n    public Object get(").append(type).append(" entity, int field) {\n        return switch (field) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            source.append("            case ").append(i).append(" -> entity.").append(fields.get(i).getSimpleName()).append(";\n");
+        }
+        source.append("            default -> throw new IndexOutOfBoundsException(field);\n        };\n    }\n\n");
+
+        source.append("    @Override\n    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("    public void set(").append(type).append(" entity, int field, Object value) {\n        switch (field) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            VariableElement field = fields.get(i);
+            source.append("            case ").append(i).append(" -> ");
+            if (field.getModifiers().contains(Modifier.FINAL)) source.append(readOnly(entity, field));
+            else source.append("entity.").append(field.getSimpleName()).append(" = ").append(coerce(field.asType())).append(";\n");
+        }
+        source.append("            default -> throw new IndexOutOfBoundsException(field);\n        }\n    }\n");
+
+        primitive(source, entity, type, fields, TypeKind.INT, "Int", "int");
+        primitive(source, entity, type, fields, TypeKind.LONG, "Long", "long");
+
+        List<Integer> readOnly = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).getModifiers().contains(Modifier.FINAL)) readOnly.add(i);
+        }
+        if (!readOnly.isEmpty()) {
+            source.append("\n    @Override\n    public boolean writable(int field) {\n        return switch (field) {\n");
+            for (int i : readOnly) source.append("            case ").append(i).append(" -> false;\n");
+            source.append("            default -> true;\n        };\n    }\n");
+        }
+
+        return source.append("}\n").toString();
+    }
+
+    // the column as SqlField would derive it from the field's annotations at runtime, see Column.of
+    private String column(VariableElement field) {
+        TypeMirror type = field.asType();
+        String erasure = processingEnv.getTypeUtils().erasure(type).toString();
+        String property = field.getSimpleName().toString();
+
+        AnnotationMirror info = annotation(field, DATA_FIELD);
+        String name = info == null || value(info, "name").toString().isEmpty() ? property : value(info, "name").toString();
+
+        AnnotationMirror sqlType = annotation(field, SQL_TYPE);
+        StringBuilder definition = new StringBuilder(name).append(' ')
+                .append(sqlType != null ? value(sqlType, "type").toString() : SQL_TYPES.getOrDefault(erasure, "TEXT"));
+
+        String defaultValue = "null";
+        if (info != null) {
+            if (Boolean.TRUE.equals(value(info, "notNull"))) definition.append(" NOT NULL");
+            if (Boolean.TRUE.equals(value(info, "unique"))) definition.append(" UNIQUE");
+            if (!value(info, "value").toString().isBlank()) defaultValue = literal(value(info, "value").toString());
+        }
+
+        String primaryKey = "null";
+        AnnotationMirror primary = annotation(field, PRIMARY_KEY);
+        if (primary != null) {
+            boolean autoIncrement = Boolean.TRUE.equals(value(primary, "autoIncrement"));
+            definition.append(" PRIMARY KEY");
+            if (autoIncrement) definition.append(" AUTOINCREMENT");
+            primaryKey = "SqlUtils.getPrimaryKey(" + autoIncrement + ")";
+        }
+
+        String foreignKey = "null";
+        AnnotationMirror foreign = annotation(field, FOREIGN_KEY);
+        if (foreign != null) {
+            String fetch = value(foreign, "fetch") instanceof VariableElement constant ? constant.getSimpleName().toString() : "BATCH";
+            foreignKey = "SqlUtils.getForeignKey(" + literal(value(foreign, "table").toString()) + ", "
+                    + literal(value(foreign, "tableId").toString()) + ", FetchMode." + fetch + ", true)";
+        }
+
+        String codec, adapter = "null";
+        AnnotationMirror fieldAdapter = annotation(field, FIELD_ADAPTER);
+        if (fieldAdapter != null) {
+            codec = "ADAPTER";
+            adapter = "new " + processingEnv.getTypeUtils().erasure((TypeMirror) value(fieldAdapter, "adapter")) + "()";
+        } else if (type.getKind().isPrimitive() || SQL_TYPES.containsKey(erasure)) codec = "NATIVE";
+        else if (erasure.equals("byte[]") && sqlType != null && binary(value(sqlType, "type").toString())) codec = "NATIVE";
+        else if (type instanceof DeclaredType declared && declared.asElement().getKind() == ElementKind.ENUM) codec = "ENUM";
+        else codec = "JSON";
+
+        String genericType = type instanceof DeclaredType declared && !declared.getTypeArguments().isEmpty()
+                ? "new Column.TypeOf<" + type + ">() {}.type()" : erasure + ".class";
+
+        return "new Column(" + literal(property) + ", " + erasure + ".class, " + genericType + ", " + literal(name) + ", "
+                + literal(definition.toString()) + ", " + defaultValue + ",\n                    "
+                + primaryKey + ", " + foreignKey + ", Column.Codec." + codec + ", " + adapter + ")";
+    }
+
+    // same rule as SqlUtils.isBinary
+    private static boolean binary(String sqlType) {
+        String type = sqlType.toUpperCase(Locale.ROOT);
+        return type.contains("BLOB") || type.contains("BINARY") || type.equals("BYTEA");
+    }
+
+    // int and long keys are read and written without boxing, like FieldAccessor's IntAccessor and LongAccessor
+    private void primitive(StringBuilder source, TypeElement entity, String type, List<VariableElement> fields,
+                           TypeKind kind, String suffix, String primitive) {
+        List<Integer> matching = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).asType().getKind() == kind) matching.add(i);
+        }
+        if (matching.isEmpty()) return;
+
+        source.append("\n    @Override\n    public ").append(primitive).append(" get").append(suffix).append("(").append(type)
+                .append(" entity, int field) {\n        return switch (field) {\n");
+        for (int i : matching) source.append("            case ").append(i).append(" -> entity.").append(fields.get(i).getSimpleName()).append(";\n");
+        source.append("            default -> EntityMapper.super.get").append(suffix).append("(entity, field);\n        };\n    }\n");
+
+        source.append("\n    @Override\n    public void set").append(suffix).append("(").append(type).append(" entity, int field, ")
+                .append(primitive).append(" value) {\n        switch (field) {\n");
+        for (int i : matching) {
+            VariableElement field = fields.get(i);
+            source.append("            case ").append(i).append(" -> ");
+            if (field.getModifiers().contains(Modifier.FINAL)) source.append(readOnly(entity, field));
+            else source.append("entity.").append(field.getSimpleName()).append(" = value;\n");
+        }
+        source.append("            default -> EntityMapper.super.set").append(suffix).append("(entity, field, value);\n        }\n    }\n");
+    }
+
+    private static void method(StringBuilder source, String returns, String signature, String body) {
+        source.append("    @Override\n    public ").append(returns).append(' ').append(signature).append(" {\n        ")
+                .append(body).append("\n    }\n\n");
+    }
+
+    private static String readOnly(TypeElement entity, VariableElement field) {
+        return "throw new IllegalStateException(\"field " + entity.getSimpleName() + "." + field.getSimpleName() + " is final\");\n";
+    }
+
+    // mirrors FieldAccessor: numbers are narrowed to the field's primitive type and null becomes its zero value
+    private String coerce(TypeMirror type) {
+        return switch (type.getKind()) {
+            case INT -> "value == null ? 0 : ((Number) value).intValue()";
+            case LONG -> "value == null ? 0L : ((Number) value).longValue()";
+            case DOUBLE -> "value == null ? 0D : ((Number) value).doubleValue()";
+            case FLOAT -> "value == null ? 0F : ((Number) value).floatValue()";
+            case SHORT -> "value == null ? 0 : ((Number) value).shortValue()";
+            case BYTE -> "value == null ? 0 : ((Number) value).byteValue()";
+            case BOOLEAN -> "value instanceof Number n ? n.intValue() != 0 : value != null && (Boolean) value";
+            case CHAR -> "value instanceof Number n ? (char) n.intValue() : value == null ? '\\0' : (Character) value";
+            default -> "(" + processingEnv.getTypeUtils().erasure(type) + ") value";
+        };
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (name(mirror).equals(annotation)) return mirror;
+        }
+        return null;
+    }
+
+    private Object value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) return entry.getValue().getValue();
+        }
+        return "";
+    }
+
+    private static String name(AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static String literal(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
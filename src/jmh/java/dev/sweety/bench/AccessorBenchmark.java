@@ -0,0 +1,104 @@
+package dev.sweety.bench;
+
+import dev.sweety.sql4j.api.table.EntityMapper;
+import dev.sweety.sql4j.impl.fields.FieldAccessor;
+import dev.sweety.tables.User;
+import dev.sweety.tables.User_Sql4JMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+// User's int key and its name read and written four ways: core reflection made accessible once in setup,
+// FieldAccessor as every SqlField holds it, a static final handle the JIT can fold, and the generated mapper
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccessorBenchmark {
+
+    private static final MethodHandle ID_GETTER, ID_SETTER, NAME_GETTER;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(User.class, MethodHandles.lookup());
+            ID_GETTER = lookup.findGetter(User.class, "id", int.class);
+            ID_SETTER = lookup.findSetter(User.class, "id", int.class);
+            NAME_GETTER = lookup.findGetter(User.class, "name", String.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final User user = new User("benchmark");
+    private Field id, name;
+    private FieldAccessor idAccessor, nameAccessor, idMapped, nameMapped;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        id = User.class.getDeclaredField("id");
+        name = User.class.getDeclaredField("name");
+        id.setAccessible(true);
+        name.setAccessible(true);
+
+        idAccessor = FieldAccessor.of(id);
+        nameAccessor = FieldAccessor.of(name);
+
+        EntityMapper<User> mapper = new User_Sql4JMapper();
+        idMapped = FieldAccessor.of(mapper, mapper.fields().indexOf("id"));
+        nameMapped = FieldAccessor.of(mapper, mapper.fields().indexOf("name"));
+    }
+
+    @Benchmark
+    public int reflectionInt() throws IllegalAccessException {
+        id.setInt(user, ++next);
+        return id.getInt(user);
+    }
+
+    @Benchmark
+    public Object reflectionObject() throws IllegalAccessException {
+        return name.get(user);
+    }
+
+    @Benchmark
+    public int accessorInt() {
+        idAccessor.setInt(user, ++next);
+        return idAccessor.getInt(user);
+    }
+
+    // the same column through the Object signature, boxing on both sides
+    @Benchmark
+    public Object accessorBoxed() {
+        idAccessor.set(user, ++next);
+        return idAccessor.get(user);
+    }
+
+    @Benchmark
+    public Object accessorObject() {
+        return nameAccessor.get(user);
+    }
+
+    @Benchmark
+    public int constantHandleInt() throws Throwable {
+        ID_SETTER.invokeExact(user, ++next);
+        return (int) ID_GETTER.invokeExact(user);
+    }
+
+    @Benchmark
+    public Object constantHandleObject() throws Throwable {
+        return (String) NAME_GETTER.invokeExact(user);
+    }
+
+    @Benchmark
+    public int mapperInt() {
+        idMapped.setInt(user, ++next);
+        return idMapped.getInt(user);
+    }
+
+    @Benchmark
+    public Object mapperObject() {
+        return nameMapped.get(user);
+    }
+}
@@ -0,0 +1,62 @@
+package dev.sweety.bench;
+
+import dev.sweety.sql4j.api.connection.SQLConnection;
+import dev.sweety.sql4j.impl.table.Table;
+import dev.sweety.sql4j.impl.table.TableManager;
+import dev.sweety.tables.Order;
+import dev.sweety.tables.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// every order references a user, so each load also resolves the users through chunked IN queries
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderBenchmark {
+
+    @Param({Sqlite.FILE, Sqlite.MEMORY})
+    public String storage;
+
+    @Param({"10", "1000"})
+    public int users;
+
+    @Param({"10000"})
+    public int orders;
+
+    private SQLConnection connection;
+    private Table<Order> orderTable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connection = Sqlite.open(storage);
+        Table<User> userTable = TableManager.create(User.class, connection);
+        orderTable = TableManager.create(Order.class, connection);
+
+        List<User> owners = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) owners.add(new User("user" + i));
+        userTable.insertAll(owners);
+
+        List<Order> batch = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) batch.add(new Order("product" + i, owners.get(i % users)));
+        orderTable.insertAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        Sqlite.close(connection);
+    }
+
+    @Benchmark
+    public List<Order> selectAll() {
+        return orderTable.selectAll();
+    }
+
+    @Benchmark
+    public List<Order> selectWhere() {
+        return orderTable.selectWhere("orderId <= ?", 100);
+    }
+}
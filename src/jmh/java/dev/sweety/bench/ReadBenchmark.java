@@ -0,0 +1,60 @@
+package dev.sweety.bench;
+
+import dev.sweety.sql4j.api.connection.SQLConnection;
+import dev.sweety.sql4j.impl.table.Table;
+import dev.sweety.sql4j.impl.table.TableManager;
+import dev.sweety.tables.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReadBenchmark {
+
+    @Param({Sqlite.FILE, Sqlite.MEMORY})
+    public String storage;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private SQLConnection connection;
+    private Table<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connection = Sqlite.open(storage);
+        users = TableManager.create(User.class, connection);
+
+        List<User> batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) batch.add(new User("user" + i));
+        users.insertAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        Sqlite.close(connection);
+    }
+
+    @Benchmark
+    public List<User> selectAll() {
+        return users.selectAll();
+    }
+
+    // autoincrement keys run from 1 to rows
+    @Benchmark
+    public List<User> selectWhereById() {
+        return users.selectWhere("id = ?", ThreadLocalRandom.current().nextInt(rows) + 1);
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return users.findById(ThreadLocalRandom.current().nextInt(rows) + 1);
+    }
+}
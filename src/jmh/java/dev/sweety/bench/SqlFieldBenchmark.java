@@ -0,0 +1,80 @@
+package dev.sweety.bench;
+
+import dev.sweety.sql4j.api.field.DataField;
+import dev.sweety.sql4j.impl.fields.SqlField;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// one column per codec: native types are bound as they are, enums by name, everything else through gson
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SqlFieldBenchmark {
+
+    public enum Status {ACTIVE, SUSPENDED, DELETED}
+
+    public static class Sample {
+        @DataField
+        int number = 42;
+        @DataField
+        long counter = 1L << 40;
+        @DataField
+        double ratio = 0.75;
+        @DataField
+        boolean flag = true;
+        @DataField
+        String text = "benchmark";
+        @DataField
+        BigDecimal amount = new BigDecimal("1234.5678");
+        @DataField
+        byte[] bytes = {1, 2, 3, 4, 5, 6, 7, 8};
+        @DataField
+        Status status = Status.SUSPENDED;
+        @DataField
+        UUID uuid = UUID.fromString("0190a1b2-c3d4-8e5f-9a0b-1c2d3e4f5a6b");
+        @DataField
+        List<String> tags = List.of("a", "b", "c");
+    }
+
+    @Param({"number", "counter", "ratio", "flag", "text", "amount", "bytes", "status", "uuid", "tags"})
+    public String column;
+
+    private final Sample sample = new Sample();
+    private SqlField field;
+    private Object value;
+    private Object serialized;
+
+    @Setup
+    public void setUp() throws Exception {
+        field = SqlField.sqlField(Sample.class.getDeclaredField(column), null);
+        value = field.accessor().get(sample);
+        serialized = field.serialize(value);
+    }
+
+    @Benchmark
+    public Object serialize() throws Exception {
+        return field.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return field.deserialize(serialized);
+    }
+
+    // what an insert does per column: read the field and turn it into a statement parameter
+    @Benchmark
+    public Object parameter() {
+        return field.parameter(field.get(sample));
+    }
+
+    // what a read does per column after the driver returned the value
+    @Benchmark
+    public Sample hydrate() throws Exception {
+        field.hydrate(sample, serialized);
+        return sample;
+    }
+}
@@ -0,0 +1,73 @@
+package dev.sweety.bench;
+
+import dev.sweety.sql4j.api.connection.SQLConnection;
+import dev.sweety.sql4j.impl.connection.SQLiteConnection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// TableManager keeps one table per class for the whole JVM, so every benchmark relies on JMH forking per parameter set
+final class Sqlite {
+
+    static final String FILE = "file";
+    static final String MEMORY = "memory";
+
+    private Sqlite() {
+    }
+
+    // a file in a fresh temporary directory, or a shared in-memory database
+    static SQLConnection open(String storage) {
+        if (MEMORY.equals(storage)) return new Memory();
+
+        try {
+            return new SQLiteConnection(Files.createTempDirectory("sql4j-bench").resolve("bench").toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void close(SQLConnection connection) throws SQLException {
+        connection.close();
+        if (connection instanceof Memory) return;
+
+        Path directory = Path.of(connection.database()).getParent();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // statements close the connection they ran on, so an extra handle keeps the in-memory database from being dropped
+    private static final class Memory extends SQLiteConnection {
+
+        private final Connection anchor;
+
+        private Memory() {
+            super("bench");
+            try {
+                anchor = DriverManager.getConnection(url());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public String url() {
+            return "jdbc:sqlite:file:bench?mode=memory&cache=shared";
+        }
+
+        @Override
+        public void close() throws SQLException {
+            super.close();
+            anchor.close();
+        }
+    }
+}
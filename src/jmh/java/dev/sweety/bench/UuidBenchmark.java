@@ -0,0 +1,25 @@
+package dev.sweety.bench;
+
+import dev.sweety.sql4j.api.UUIDv8Hybrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// every generate() shares one counter and one SecureRandom, so the contended run shows what they cost across threads
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UuidBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public UUID generate() {
+        return UUIDv8Hybrid.generate();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public UUID generateContended() {
+        return UUIDv8Hybrid.generate();
+    }
+}
@@ -0,0 +1,66 @@
+package dev.sweety.bench;
+
+import dev.sweety.sql4j.api.connection.SQLConnection;
+import dev.sweety.sql4j.impl.table.Table;
+import dev.sweety.sql4j.impl.table.TableManager;
+import dev.sweety.tables.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// insert and insertAll report rows per second, so a single insert and one row of a batch compare directly
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WriteBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({Sqlite.FILE, Sqlite.MEMORY})
+    public String storage;
+
+    private SQLConnection connection;
+    private Table<User> users;
+    private User existing;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connection = Sqlite.open(storage);
+        users = TableManager.create(User.class, connection);
+
+        existing = new User("existing");
+        users.insert(existing);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        Sqlite.close(connection);
+    }
+
+    @Benchmark
+    public User insert() {
+        User user = new User("user" + counter++);
+        users.insert(user);
+        return user;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<User> insertAll() {
+        List<User> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) batch.add(new User("user" + counter++));
+        users.insertAll(batch, BATCH);
+        return batch;
+    }
+
+    // dirty tracking is off, so every update writes the whole row whether or not it changed
+    @Benchmark
+    public User update() {
+        users.update(existing);
+        return existing;
+    }
+}
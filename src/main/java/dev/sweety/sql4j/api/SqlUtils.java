@@ -3,7 +3,9 @@ package dev.sweety.sql4j.api;
 import com.google.gson.Gson;
 import dev.sweety.sql4j.api.adapter.FieldAdapter;
 import dev.sweety.sql4j.api.adapter.SqlType;
+import dev.sweety.sql4j.api.connection.SqlExecutors;
 import dev.sweety.sql4j.api.field.DataField;
+import dev.sweety.sql4j.api.field.FetchMode;
 import dev.sweety.sql4j.api.field.ForeignKey;
 import dev.sweety.sql4j.api.field.PrimaryKey;
 
@@ -12,14 +14,15 @@ import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.*;
+import java.util.Locale;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 public class SqlUtils {
 
     public static boolean DEBUG = false;
 
-    public static final Executor EXECUTOR = Executors.newCachedThreadPool();
+    // shared by connections that were not given their own executor
+    public static final Executor EXECUTOR = SqlExecutors.virtual(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
     public static final Gson gson = new Gson().newBuilder().disableHtmlEscaping().create();
 
     public static final System.Logger logger = System.getLogger("Sql4J");
@@ -32,7 +35,7 @@ public class SqlUtils {
                 field.isAnnotationPresent(FieldAdapter.class);
     }
 
-    public static ForeignKey getForeignKey(final String table, final String tableId, boolean hasForeignKey) {
+    public static ForeignKey getForeignKey(final String table, final String tableId, final FetchMode fetch, boolean hasForeignKey) {
         return !hasForeignKey ? null : new ForeignKey() {
 
             @Override
@@ -49,9 +52,62 @@ public class SqlUtils {
             public String tableId() {
                 return tableId;
             }
+
+            @Override
+            public FetchMode fetch() {
+                return fetch;
+            }
         };
     }
 
+    public static PrimaryKey getPrimaryKey(final boolean autoIncrement) {
+        return new PrimaryKey() {
+
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return PrimaryKey.class;
+            }
+
+            @Override
+            public boolean autoIncrement() {
+                return autoIncrement;
+            }
+        };
+    }
+
+    public static String placeholders(int count) {
+        return count == 1 ? "?" : "?, ".repeat(count - 1) + "?";
+    }
+
+    public static boolean isSupported(Class<?> type) {
+        if (type.isPrimitive()) return true;
+
+        if (type == String.class) return true;
+        if (type == Integer.class) return true;
+        if (type == Long.class) return true;
+        if (type == Double.class) return true;
+        if (type == Float.class) return true;
+        if (type == Boolean.class) return true;
+        if (type == Byte.class) return true;
+        if (type == Short.class) return true;
+        if (type == Character.class) return true;
+
+        if (type == Date.class) return true;
+        if (type == Time.class) return true;
+        if (type == Timestamp.class) return true;
+        if (type == Blob.class) return true;
+        if (type == Clob.class) return true;
+
+        if (type == BigDecimal.class) return true;
+        return type == BigInteger.class;
+    }
+
+    // byte[] keeps the JSON text it has always been stored as, unless @SqlType declares a binary column
+    public static boolean isBinary(String sqlType) {
+        String type = sqlType.toUpperCase(Locale.ROOT);
+        return type.contains("BLOB") || type.contains("BINARY") || type.equals("BYTEA");
+    }
+
     public static String getType(Field field) {
         Class<?> type = field.getType();
 
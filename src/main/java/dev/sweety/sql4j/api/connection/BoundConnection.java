@@ -0,0 +1,49 @@
+package dev.sweety.sql4j.api.connection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// a connection lent to the current thread for a stretch of work, such as a cursor resolving foreign keys between
+// fetches: statements issued through the owner on this thread run on it instead of borrowing another one
+public final class BoundConnection implements AutoCloseable {
+
+    private static final ThreadLocal<Map<SQLConnection, Connection>> CURRENT = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    private final SQLConnection owner;
+    private final Connection previous;
+
+    private BoundConnection(SQLConnection owner, Connection previous) {
+        this.owner = owner;
+        this.previous = previous;
+    }
+
+    public static Connection current(SQLConnection owner) {
+        return CURRENT.get().get(owner);
+    }
+
+    // the caller keeps ownership, statements only ever close the handle
+    public static BoundConnection bind(SQLConnection owner, Connection connection) {
+        return new BoundConnection(owner, CURRENT.get().put(owner, unclosable(connection)));
+    }
+
+    @Override
+    public void close() {
+        if (previous != null) CURRENT.get().put(owner, previous);
+        else CURRENT.get().remove(owner);
+    }
+
+    static Connection unclosable(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) return null;
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
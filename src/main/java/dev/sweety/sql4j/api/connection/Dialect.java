@@ -0,0 +1,40 @@
+package dev.sweety.sql4j.api.connection;
+
+import dev.sweety.sql4j.api.SqlUtils;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+public enum Dialect {
+
+    // also understood by PostgreSQL
+    SQLITE {
+        @Override
+        public String upsert(String table, List<String> columns, String key, List<String> updates) {
+            StringJoiner set = new StringJoiner(", ", " ON CONFLICT(" + key + ") DO UPDATE SET ", ";");
+            for (String column : updates) set.add(column + " = excluded." + column);
+            return insert(table, columns) + (updates.isEmpty() ? " ON CONFLICT(" + key + ") DO NOTHING;" : set.toString());
+        }
+    },
+
+    // VALUES(column) rather than a row alias, MariaDB has no alias syntax
+    MYSQL {
+        @Override
+        public String upsert(String table, List<String> columns, String key, List<String> updates) {
+            StringJoiner set = new StringJoiner(", ", " ON DUPLICATE KEY UPDATE ", ";");
+            for (String column : updates) set.add(column + " = VALUES(" + column + ")");
+            if (updates.isEmpty()) set.add(key + " = " + key);
+            return insert(table, columns) + set;
+        }
+    };
+
+    public abstract String upsert(String table, List<String> columns, String key, List<String> updates);
+
+    private static String insert(String table, List<String> columns) {
+        return "INSERT INTO " + table + "(" + String.join(", ", columns) + ") VALUES (" + SqlUtils.placeholders(columns.size()) + ")";
+    }
+
+    public static Dialect of(String url) {
+        return url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:") ? MYSQL : SQLITE;
+    }
+}
@@ -0,0 +1,102 @@
+package dev.sweety.sql4j.api.connection;
+
+import dev.sweety.sql4j.api.SqlUtils;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+
+// the listeners of one SQLConnection. With none registered start() returns DISABLED without reading the clock
+// and the callbacks return after one array length check, so statements pay nothing for it
+public final class Instrumentation {
+
+    public static final long DISABLED = Long.MIN_VALUE;
+
+    // for SQLConnection implementations that do not keep their own
+    public static final Instrumentation NONE = new Instrumentation(false);
+
+    private static final QueryListener[] EMPTY = {};
+
+    private final boolean supported;
+    private volatile QueryListener[] listeners = EMPTY;
+
+    public Instrumentation() {
+        this(true);
+    }
+
+    private Instrumentation(boolean supported) {
+        this.supported = supported;
+    }
+
+    public synchronized Instrumentation add(QueryListener listener) {
+        if (!supported) throw new UnsupportedOperationException("this connection does not support instrumentation, override SQLConnection#instrumentation()");
+
+        QueryListener[] next = Arrays.copyOf(listeners, listeners.length + 1);
+        next[listeners.length] = listener;
+        listeners = next;
+        return this;
+    }
+
+    public synchronized Instrumentation remove(QueryListener listener) {
+        listeners = Arrays.stream(listeners).filter(registered -> registered != listener).toArray(QueryListener[]::new);
+        return this;
+    }
+
+    public Instrumentation slowQueryLog(Duration threshold) {
+        return add(new SlowQueryLog(threshold));
+    }
+
+    public boolean enabled() {
+        return listeners.length != 0;
+    }
+
+    public long start() {
+        return listeners.length == 0 ? DISABLED : System.nanoTime();
+    }
+
+    public void executed(String sql, Object[] params, long start, long rows, SQLException failure) {
+        report(null, sql, params, 1, start, rows, failure);
+    }
+
+    public void executed(String table, String sql, Object[] params, long start, long rows, SQLException failure) {
+        report(table, sql, params, 1, start, rows, failure);
+    }
+
+    public void executedBatch(String table, String sql, int batch, long start, long rows, SQLException failure) {
+        report(table, sql, null, batch, start, rows, failure);
+    }
+
+    public void acquired(long start) {
+        QueryListener[] listeners = this.listeners;
+        if (listeners.length == 0 || start == DISABLED) return;
+
+        long wait = System.nanoTime() - start;
+        for (QueryListener listener : listeners) {
+            try {
+                listener.acquired(wait);
+            } catch (RuntimeException e) {
+                failed(listener, e);
+            }
+        }
+    }
+
+    private void report(String table, String sql, Object[] params, int batch, long start, long rows, SQLException failure) {
+        QueryListener[] listeners = this.listeners;
+        if (listeners.length == 0 || start == DISABLED) return;
+
+        QueryEvent event = new QueryEvent(sql, table, params, batch, System.nanoTime() - start, rows, failure);
+        for (QueryListener listener : listeners) {
+            try {
+                listener.executed(event);
+            } catch (RuntimeException e) {
+                failed(listener, e);
+            }
+        }
+    }
+
+    // a broken listener must not fail the statement it was told about
+    private static void failed(QueryListener listener, RuntimeException e) {
+        SqlUtils.logger.log(System.Logger.Level.ERROR, "query listener " + listener.getClass().getName() + " failed");
+        e.printStackTrace(System.err);
+    }
+}
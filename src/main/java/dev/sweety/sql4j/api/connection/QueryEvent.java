@@ -0,0 +1,76 @@
+package dev.sweety.sql4j.api.connection;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+// one statement as seen by a QueryListener. params is null for batches, which report how many parameter sets
+// they ran in batch; rows counts what a select read or a write affected, -1 when the driver does not say.
+// table is set by the statements a Table runs itself, the others leave it null
+public record QueryEvent(String sql, String table, Object[] params, int batch, long nanos, long rows, SQLException failure) {
+
+    public enum Operation {SELECT, INSERT, UPDATE, DELETE, OTHER}
+
+    public Duration duration() {
+        return Duration.ofNanos(nanos);
+    }
+
+    public boolean failed() {
+        return failure != null;
+    }
+
+    // upserts start with INSERT on every dialect and count as inserts
+    public Operation operation() {
+        return operation(sql);
+    }
+
+    // without a table from the caller it is read from the sql, which covers the single-table writes
+    @Override
+    public String table() {
+        return table != null ? table : table(sql);
+    }
+
+    public static Operation operation(String sql) {
+        int start = skipSpaces(sql, 0);
+        for (Operation operation : Operation.values()) {
+            String keyword = operation.name();
+            if (operation != Operation.OTHER && sql.regionMatches(true, start, keyword, 0, keyword.length())) return operation;
+        }
+        return Operation.OTHER;
+    }
+
+    // the table named after INSERT INTO, UPDATE, DELETE FROM or the first FROM of a select; null for anything else,
+    // including a select whose first FROM is a subquery
+    public static String table(String sql) {
+        String keyword = switch (operation(sql)) {
+            case INSERT -> "INTO";
+            case UPDATE -> "UPDATE";
+            case SELECT, DELETE -> "FROM";
+            case OTHER -> null;
+        };
+        if (keyword == null) return null;
+
+        int from = indexOfWord(sql, keyword);
+        if (from < 0) return null;
+
+        int start = skipSpaces(sql, from + keyword.length());
+        int end = start;
+        while (end < sql.length() && !Character.isWhitespace(sql.charAt(end)) && "(;,".indexOf(sql.charAt(end)) < 0) end++;
+        return end > start ? sql.substring(start, end) : null;
+    }
+
+    private static int indexOfWord(String sql, String word) {
+        for (int i = 0; i + word.length() <= sql.length(); i++) {
+            if (!sql.regionMatches(true, i, word, 0, word.length())) continue;
+
+            boolean before = i == 0 || Character.isWhitespace(sql.charAt(i - 1));
+            boolean after = i + word.length() == sql.length() || Character.isWhitespace(sql.charAt(i + word.length()));
+            if (before && after) return i;
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(String sql, int from) {
+        while (from < sql.length() && Character.isWhitespace(sql.charAt(from))) from++;
+        return from;
+    }
+}
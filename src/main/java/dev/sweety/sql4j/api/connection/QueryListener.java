@@ -0,0 +1,13 @@
+package dev.sweety.sql4j.api.connection;
+
+// registered through SQLConnection#instrumentation(); called on the thread that ran the statement,
+// so implementations must be cheap and thread-safe
+public interface QueryListener {
+
+    default void executed(QueryEvent event) {
+    }
+
+    // time spent getting a JDBC connection: pool waits, reconnects, or opening a dedicated one for a cursor or transaction
+    default void acquired(long waitNanos) {
+    }
+}
@@ -1,7 +1,11 @@
 package dev.sweety.sql4j.api.connection;
 
 import dev.sweety.sql4j.api.SqlUtils;
+import dev.sweety.sql4j.api.jfr.ConnectionAcquireEvent;
+import dev.sweety.sql4j.api.jfr.StatementEvent;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.*;
 import java.util.Arrays;
 import java.util.Collection;
@@ -16,19 +20,82 @@ public interface SQLConnection {
 
     String url();
 
+    default Dialect dialect() {
+        return Dialect.of(url());
+    }
+
     Executor executor();
 
+    void executor(Executor executor);
+
     String database();
 
     void database(String database);
 
     void close() throws SQLException;
 
-    default <T> T execute(String query, StatementConsumer<T> function) {
-        try (Connection connection = connection(); PreparedStatement statement = connection.prepareStatement(query)) {
+    // the built-in connections keep their own; Instrumentation.NONE rejects listeners
+    default Instrumentation instrumentation() {
+        return Instrumentation.NONE;
+    }
+
+    // the current thread's transaction connection if there is one, then one bound to the thread, otherwise connection()
+    default Connection acquire() throws SQLException {
+        Transaction transaction = Transaction.current(this);
+        if (transaction != null) return transaction.connection();
+
+        Connection bound = BoundConnection.current(this);
+        if (bound != null) return bound;
+
+        Instrumentation instrumentation = instrumentation();
+        long start = instrumentation.start();
+        ConnectionAcquireEvent event = ConnectionAcquireEvent.start();
+        Connection connection;
+        try {
+            connection = connection();
+        } catch (SQLException e) {
+            event.finish(this, true);
+            throw e;
+        }
+        event.finish(this, false);
+        instrumentation.acquired(start);
+        return connection;
+    }
+
+    default boolean inTransaction() {
+        return Transaction.current(this) != null;
+    }
+
+    // runs the work on one connection with a single commit; nested calls join the outer transaction
+    default <T> T transaction(Transactional<T> work) {
+        return Transaction.run(this, work);
+    }
+
+    // table calls inside the work must be the synchronous ones, async variants run outside the transaction
+    default <T> CompletableFuture<T> transactionAsync(Transactional<T> work) {
+        return CompletableFuture.supplyAsync(() -> transaction(work), executor());
+    }
+
+    default void failed(SQLException e) {
+        Transaction transaction = Transaction.current(this);
+        if (transaction != null) transaction.rollbackOnly(e);
+    }
 
-            return function.accept(statement);
+    // statement timings include getting the connection, which listeners also receive on its own through acquired
+    default <T> T execute(String query, StatementConsumer<T> function) {
+        Instrumentation instrumentation = instrumentation();
+        long start = instrumentation.start();
+        StatementEvent event = StatementEvent.start();
+        try (Connection connection = acquire(); PreparedStatement statement = connection.prepareStatement(query)) {
+
+            T result = function.accept(statement);
+            event.finish(query, 1, -1, null);
+            instrumentation.executed(query, null, start, -1, null);
+            return result;
         } catch (SQLException e) {
+            event.finish(query, 1, -1, e);
+            instrumentation.executed(query, null, start, -1, e);
+            failed(e);
             SqlUtils.logger.log(System.Logger.Level.ERROR, "query: " + query);
             e.printStackTrace(System.err);
         }
@@ -41,12 +108,21 @@ public interface SQLConnection {
     }
 
     default ResultSet executeQuery(String query, Object... params) {
-        try (Connection connection = connection(); PreparedStatement statement = connection.prepareStatement(query)) {
+        Instrumentation instrumentation = instrumentation();
+        long start = instrumentation.start();
+        StatementEvent event = StatementEvent.start();
+        try (Connection connection = acquire(); PreparedStatement statement = connection.prepareStatement(query)) {
 
             setParameters(statement, params);
 
-            return statement.executeQuery();
+            ResultSet resultSet = statement.executeQuery();
+            event.finish(query, 1, -1, null);
+            instrumentation.executed(query, params, start, -1, null);
+            return resultSet;
         } catch (SQLException e) {
+            event.finish(query, 1, -1, e);
+            instrumentation.executed(query, params, start, -1, e);
+            failed(e);
             SqlUtils.logger.log(System.Logger.Level.ERROR, "query: " + query + " params:" + Arrays.toString(params));
             e.printStackTrace(System.err);
         }
@@ -59,12 +135,21 @@ public interface SQLConnection {
     }
 
     default int executeUpdate(String query, Object... params) {
-        try (Connection connection = connection(); PreparedStatement statement = connection.prepareStatement(query)) {
+        Instrumentation instrumentation = instrumentation();
+        long start = instrumentation.start();
+        StatementEvent event = StatementEvent.start();
+        try (Connection connection = acquire(); PreparedStatement statement = connection.prepareStatement(query)) {
 
             setParameters(statement, params);
 
-            return statement.executeUpdate();
+            int rows = statement.executeUpdate();
+            event.finish(query, 1, rows, null);
+            instrumentation.executed(query, params, start, rows, null);
+            return rows;
         } catch (SQLException e) {
+            event.finish(query, 1, -1, e);
+            instrumentation.executed(query, params, start, -1, e);
+            failed(e);
             SqlUtils.logger.log(System.Logger.Level.ERROR, "query: " + query + " params:" + Arrays.toString(params));
             e.printStackTrace(System.err);
         }
@@ -77,14 +162,23 @@ public interface SQLConnection {
     }
 
     default <T> T update(String query, StatementConsumer<T> function, Object... params) {
-        try (Connection connection = connection(); PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        Instrumentation instrumentation = instrumentation();
+        long start = instrumentation.start();
+        StatementEvent event = StatementEvent.start();
+        try (Connection connection = acquire(); PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
 
             setParameters(statement, params);
-            statement.executeUpdate();
+            int rows = statement.executeUpdate();
 
-            return function.accept(statement);
+            T result = function.accept(statement);
+            event.finish(query, 1, rows, null);
+            instrumentation.executed(query, params, start, rows, null);
+            return result;
         } catch (SQLException e) {
+            event.finish(query, 1, -1, e);
+            instrumentation.executed(query, params, start, -1, e);
+            failed(e);
             SqlUtils.logger.log(System.Logger.Level.ERROR, "query: " + query);
             e.printStackTrace(System.err);
         }
@@ -99,26 +193,59 @@ public interface SQLConnection {
     default void setParameters(PreparedStatement statement, Collection<Object> params) throws SQLException {
         int i = 1;
         for (Object param : params) {
-            statement.setObject(i++, param);
+            setParameter(statement, i++, param);
         }
     }
 
     default void setParameters(PreparedStatement statement, Object[] params) throws SQLException {
         for (int i = 0; i < params.length; i++) {
-            statement.setObject(i + 1, params[i]);
+            setParameter(statement, i + 1, params[i]);
+        }
+    }
+
+    default void setParameter(PreparedStatement statement, int index, Object param) throws SQLException {
+        switch (param) {
+            case null -> statement.setNull(index, Types.NULL);
+            case SqlNull sqlNull -> statement.setNull(index, sqlNull.type());
+            case String value -> statement.setString(index, value);
+            case Integer value -> statement.setInt(index, value);
+            case Long value -> statement.setLong(index, value);
+            case Double value -> statement.setDouble(index, value);
+            case Float value -> statement.setFloat(index, value);
+            case Short value -> statement.setShort(index, value);
+            case Byte value -> statement.setByte(index, value);
+            case Boolean value -> statement.setBoolean(index, value);
+            case Character value -> statement.setString(index, value.toString());
+            case BigDecimal value -> statement.setBigDecimal(index, value);
+            case BigInteger value -> statement.setBigDecimal(index, new BigDecimal(value));
+            case Timestamp value -> statement.setTimestamp(index, value);
+            case Date value -> statement.setDate(index, value);
+            case Time value -> statement.setTime(index, value);
+            case byte[] value -> statement.setBytes(index, value);
+            // sqlite-jdbc has no setBlob/setClob, every driver takes the contents
+            case Blob value -> statement.setBytes(index, value.getBytes(1, Math.toIntExact(value.length())));
+            case Clob value -> statement.setString(index, value.getSubString(1, Math.toIntExact(value.length())));
+            default -> statement.setObject(index, param);
         }
     }
 
     default CompletableFuture<Void> executeAsync(String query) {
-        return CompletableFuture.runAsync(() -> execute(query));
+        return CompletableFuture.runAsync(() -> execute(query), executor());
     }
 
     default void execute(String query) {
-        try (Connection connection = connection(); Statement statement = connection.createStatement()) {
+        Instrumentation instrumentation = instrumentation();
+        long start = instrumentation.start();
+        StatementEvent event = StatementEvent.start();
+        try (Connection connection = acquire(); Statement statement = connection.createStatement()) {
 
             statement.execute(query);
+            event.finish(query, 1, -1, null);
+            instrumentation.executed(query, null, start, -1, null);
         } catch (SQLException e) {
-
+            event.finish(query, 1, -1, e);
+            instrumentation.executed(query, null, start, -1, e);
+            failed(e);
             SqlUtils.logger.log(System.Logger.Level.ERROR, "query: " + query);
             e.printStackTrace(System.err);
         }
@@ -131,6 +258,7 @@ public interface SQLConnection {
                 connectionFuture.complete(connect());
             } catch (SQLException e) {
                 e.printStackTrace(System.err);
+                connectionFuture.completeExceptionally(e);
             }
         });
         return connectionFuture;
@@ -0,0 +1,24 @@
+package dev.sweety.sql4j.api.connection;
+
+import dev.sweety.sql4j.api.SqlUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// logs statements that took at least the threshold, with their bound parameters
+public record SlowQueryLog(Duration threshold) implements QueryListener {
+
+    public SlowQueryLog {
+        if (threshold.isNegative()) throw new IllegalArgumentException("threshold must not be negative");
+    }
+
+    @Override
+    public void executed(QueryEvent event) {
+        if (event.nanos() < threshold.toNanos()) return;
+
+        String bound = event.params() != null ? " params:" + Arrays.toString(event.params())
+                : event.batch() > 1 ? " batch: " + event.batch() : "";
+        SqlUtils.logger.log(System.Logger.Level.WARNING, "slow query (" + event.duration().toMillis() + "ms, rows: "
+                + event.rows() + (event.failed() ? ", failed" : "") + "): " + event.sql() + bound);
+    }
+}
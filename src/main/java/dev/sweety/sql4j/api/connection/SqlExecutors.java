@@ -0,0 +1,82 @@
+package dev.sweety.sql4j.api.connection;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class SqlExecutors {
+
+    private SqlExecutors() {
+    }
+
+    // one virtual thread per task, at most maxConcurrency of them running; the rest park until a permit frees up
+    public static Bounded virtual(int maxConcurrency) {
+        ThreadFactory factory = Thread.ofVirtual().name("Sql4J-virtual-", 0).factory();
+        return new Bounded(Executors.newThreadPerTaskExecutor(factory), maxConcurrency);
+    }
+
+    // fixed platform threads with a bounded queue; once the queue is full the submitting thread blocks
+    public static ExecutorService bounded(int threads, int queueCapacity) {
+        if (threads <= 0) throw new IllegalArgumentException("threads must be > 0");
+        if (queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity must be > 0");
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "Sql4J-worker-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                factory, (task, executor) -> {
+            if (executor.isShutdown()) throw new RejectedExecutionException("executor is shut down");
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("interrupted while waiting for queue space", e);
+            }
+        });
+    }
+
+    public static final class Bounded implements Executor, AutoCloseable {
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+        private final int maxConcurrency;
+
+        private Bounded(ExecutorService delegate, int maxConcurrency) {
+            if (maxConcurrency <= 0) throw new IllegalArgumentException("maxConcurrency must be > 0");
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency, true);
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            delegate.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        public int maxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public int active() {
+            return maxConcurrency - permits.availablePermits();
+        }
+
+        public int waiting() {
+            return permits.getQueueLength();
+        }
+
+        @Override
+        public void close() {
+            delegate.shutdown();
+        }
+    }
+}
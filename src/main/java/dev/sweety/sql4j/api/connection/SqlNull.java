@@ -0,0 +1,5 @@
+package dev.sweety.sql4j.api.connection;
+
+// a null parameter that still carries its java.sql.Types code
+public record SqlNull(int type) {
+}
@@ -0,0 +1,136 @@
+package dev.sweety.sql4j.api.connection;
+
+import dev.sweety.sql4j.api.SqlUtils;
+import dev.sweety.sql4j.api.jfr.ConnectionAcquireEvent;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Consumer;
+
+// one JDBC connection bound to the current thread; every statement issued through the owning SQLConnection
+// on this thread runs on it until the outermost transaction(...) call commits or rolls back
+public final class Transaction {
+
+    private static final ThreadLocal<Map<SQLConnection, Transaction>> CURRENT = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    private final SQLConnection owner;
+    private final Connection connection;
+    private final Connection handle;
+    private final List<Runnable> beforeCommit = new ArrayList<>();
+    private final Map<Object, Consumer<Boolean>> afterCompletion = new LinkedHashMap<>();
+    private Throwable failure;
+
+    private Transaction(SQLConnection owner, Connection connection) {
+        this.owner = owner;
+        this.connection = connection;
+        // statements close what they borrow; the transaction's connection must survive until commit
+        this.handle = BoundConnection.unclosable(connection);
+    }
+
+    public static Transaction current(SQLConnection owner) {
+        return CURRENT.get().get(owner);
+    }
+
+    static <T> T run(SQLConnection owner, Transactional<T> work) {
+        Transaction current = current(owner);
+        if (current != null) {
+            // nested calls join the outer transaction, a failure dooms all of it
+            try {
+                return work.execute(current);
+            } catch (Exception e) {
+                current.rollbackOnly(e);
+                throw e instanceof TransactionException transactionException ? transactionException
+                        : new TransactionException("transaction failed", e);
+            }
+        }
+
+        Instrumentation instrumentation = owner.instrumentation();
+        long start = instrumentation.start();
+        ConnectionAcquireEvent event = ConnectionAcquireEvent.start();
+        try (Connection connection = owner.connect()) {
+            event.finish(owner, false);
+            instrumentation.acquired(start);
+            connection.setAutoCommit(false);
+            Transaction transaction = new Transaction(owner, connection);
+            CURRENT.get().put(owner, transaction);
+
+            try {
+                T result = work.execute(transaction);
+                transaction.commit();
+                return result;
+            } catch (Exception e) {
+                transaction.rollback();
+                throw e instanceof TransactionException transactionException ? transactionException
+                        : new TransactionException("transaction rolled back", e);
+            } finally {
+                CURRENT.get().remove(owner);
+                if (!connection.isClosed()) connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new TransactionException("transaction failed", e);
+        }
+    }
+
+    public SQLConnection owner() {
+        return owner;
+    }
+
+    public Connection connection() {
+        return handle;
+    }
+
+    public boolean isRollbackOnly() {
+        return failure != null;
+    }
+
+    public void rollbackOnly() {
+        rollbackOnly(new IllegalStateException("marked rollback-only"));
+    }
+
+    // statement errors are logged where they happen; this makes them abort the transaction as well
+    public void rollbackOnly(Throwable cause) {
+        if (failure == null) failure = cause;
+    }
+
+    // runs inside the transaction right before commit, in registration order
+    public void beforeCommit(Runnable hook) {
+        beforeCommit.add(hook);
+    }
+
+    // runs once per key after commit (true) or rollback (false)
+    public void afterCompletion(Object key, Consumer<Boolean> hook) {
+        afterCompletion.putIfAbsent(key, hook);
+    }
+
+    private void commit() throws SQLException {
+        for (int i = 0; i < beforeCommit.size(); i++) {
+            beforeCommit.get(i).run();
+        }
+
+        if (failure != null) throw new TransactionException("transaction marked rollback-only", failure);
+
+        connection.commit();
+        complete(true);
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            SqlUtils.logger.log(System.Logger.Level.ERROR, "rollback failed");
+            e.printStackTrace(System.err);
+        }
+        complete(false);
+    }
+
+    private void complete(boolean committed) {
+        for (Consumer<Boolean> hook : afterCompletion.values()) {
+            try {
+                hook.accept(committed);
+            } catch (RuntimeException e) {
+                e.printStackTrace(System.err);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package dev.sweety.sql4j.api.connection;
+
+public class TransactionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TransactionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
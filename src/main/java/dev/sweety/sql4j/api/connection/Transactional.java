@@ -0,0 +1,6 @@
+package dev.sweety.sql4j.api.connection;
+
+public interface Transactional<T> {
+
+    T execute(Transaction transaction) throws Exception;
+}
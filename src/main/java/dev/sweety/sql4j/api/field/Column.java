@@ -0,0 +1,77 @@
+package dev.sweety.sql4j.api.field;
+
+import dev.sweety.sql4j.api.SqlUtils;
+import dev.sweety.sql4j.api.adapter.Adapter;
+import dev.sweety.sql4j.api.adapter.FieldAdapter;
+import dev.sweety.sql4j.api.adapter.SqlType;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+// everything a table needs to know about a mapped field before it touches a connection: generated mappers
+// write these out at compile time, entities without one get them from the field's annotations
+public record Column(String field, Class<?> type, Type genericType, String name, String definition,
+                     String defaultValue, PrimaryKey primaryKey, ForeignKey foreignKey, Codec codec,
+                     Adapter<?> adapter) {
+
+    // how values of the field are turned into column values when the field is not a foreign key to a registered table
+    public enum Codec {
+        NATIVE,
+        ENUM,
+        ADAPTER,
+        JSON
+    }
+
+    public static Column of(Field field) {
+        DataField info = field.getAnnotation(DataField.class);
+        String name = info == null || info.name().isEmpty() ? field.getName() : info.name();
+
+        StringBuilder definition = new StringBuilder();
+        definition.append(name).append(" ").append(SqlUtils.getType(field));
+
+        String defaultValue = null;
+
+        if (info != null) {
+            if (info.notNull()) definition.append(" NOT NULL");
+            if (info.unique()) definition.append(" UNIQUE");
+            if (!info.value().isEmpty() && !info.value().isBlank()) defaultValue = info.value();
+        }
+
+        PrimaryKey primaryKey = field.getAnnotation(PrimaryKey.class);
+        if (primaryKey != null) {
+            definition.append(" PRIMARY KEY");
+            if (primaryKey.autoIncrement()) definition.append(" AUTOINCREMENT");
+        }
+
+        Class<?> type = field.getType();
+        SqlType sqlType = field.getAnnotation(SqlType.class);
+        Adapter<?> adapter = null;
+        Codec codec;
+
+        FieldAdapter fieldAdapter = field.getAnnotation(FieldAdapter.class);
+        if (fieldAdapter != null) {
+            try {
+                adapter = fieldAdapter.adapter().getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("cannot instantiate adapter " + fieldAdapter.adapter().getName()
+                        + " for field " + field.getName(), e);
+            }
+            codec = Codec.ADAPTER;
+        } else if (SqlUtils.isSupported(type)) codec = Codec.NATIVE;
+        else if (type == byte[].class && sqlType != null && SqlUtils.isBinary(sqlType.type())) codec = Codec.NATIVE;
+        else if (type.isEnum()) codec = Codec.ENUM;
+        else codec = Codec.JSON;
+
+        return new Column(field.getName(), type, field.getGenericType(), name, definition.toString(), defaultValue,
+                primaryKey, field.getAnnotation(ForeignKey.class), codec, adapter);
+    }
+
+    // lets generated mappers spell out a parameterized field type, new Column.TypeOf<List<String>>() {}.type()
+    public abstract static class TypeOf<T> {
+
+        public Type type() {
+            return ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package dev.sweety.sql4j.api.field;
+
+public enum FetchMode {
+
+    // referenced rows are loaded after the result set with chunked "WHERE key IN (...)" queries
+    BATCH,
+
+    // referenced rows are loaded in the same statement through a LEFT JOIN
+    JOIN
+
+}
@@ -13,4 +13,6 @@ public @interface ForeignKey {
 
     String tableId() default "";
 
+    FetchMode fetch() default FetchMode.BATCH;
+
 }
\ No newline at end of file
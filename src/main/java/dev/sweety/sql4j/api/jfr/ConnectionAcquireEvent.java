@@ -0,0 +1,32 @@
+package dev.sweety.sql4j.api.jfr;
+
+import dev.sweety.sql4j.api.connection.SQLConnection;
+import jdk.jfr.*;
+
+@Name("dev.sweety.sql4j.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category("Sql4J")
+@Description("Time spent getting a JDBC connection: pool waits, reconnects, or a dedicated connection for a cursor or transaction")
+public final class ConnectionAcquireEvent extends Event {
+
+    @Label("URL")
+    String url;
+
+    @Label("Failed")
+    boolean failed;
+
+    public static ConnectionAcquireEvent start() {
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(SQLConnection connection, boolean failed) {
+        end();
+        if (!shouldCommit()) return;
+
+        this.url = connection.url();
+        this.failed = failed;
+        commit();
+    }
+}
@@ -0,0 +1,34 @@
+package dev.sweety.sql4j.api.jfr;
+
+import dev.sweety.sql4j.api.connection.SQLConnection;
+import jdk.jfr.*;
+
+// begins when the pool hands a connection out, so the duration is how long the caller held it
+@Name("dev.sweety.sql4j.ConnectionRelease")
+@Label("Connection Release")
+@Category("Sql4J")
+@Description("A pooled connection returned to its pool, spanning the time it was borrowed")
+public final class ConnectionReleaseEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(ConnectionReleaseEvent.class);
+
+    @Label("URL")
+    String url;
+
+    // borrowed handles outlive the call that made them, so nothing is allocated while the event is off
+    public static ConnectionReleaseEvent start() {
+        if (!TYPE.isEnabled()) return null;
+
+        ConnectionReleaseEvent event = new ConnectionReleaseEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(SQLConnection connection) {
+        end();
+        if (!shouldCommit()) return;
+
+        this.url = connection.url();
+        commit();
+    }
+}
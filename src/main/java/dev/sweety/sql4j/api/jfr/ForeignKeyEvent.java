@@ -0,0 +1,40 @@
+package dev.sweety.sql4j.api.jfr;
+
+import jdk.jfr.*;
+
+@Name("dev.sweety.sql4j.ForeignKey")
+@Label("Foreign Key Resolution")
+@Category("Sql4J")
+@Description("Referenced entities loaded for foreign keys, one key at a time or in bulk for a whole read")
+public final class ForeignKeyEvent extends Event {
+
+    @Label("Table")
+    @Description("The referenced table")
+    String table;
+
+    @Label("Column")
+    String column;
+
+    @Label("Keys")
+    int keys;
+
+    @Label("Resolved")
+    int resolved;
+
+    public static ForeignKeyEvent start() {
+        ForeignKeyEvent event = new ForeignKeyEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String table, String column, int keys, int resolved) {
+        end();
+        if (!shouldCommit()) return;
+
+        this.table = table;
+        this.column = column;
+        this.keys = keys;
+        this.resolved = resolved;
+        commit();
+    }
+}
@@ -0,0 +1,37 @@
+package dev.sweety.sql4j.api.jfr;
+
+import jdk.jfr.*;
+
+// covers reading the rows off the result set and building entities from them;
+// foreign key lookups made on the way report their own events
+@Name("dev.sweety.sql4j.Hydration")
+@Label("Entity Hydration")
+@Category("Sql4J")
+@Description("Rows of one read, or one cursor chunk, turned into entities")
+public final class HydrationEvent extends Event {
+
+    @Label("Table")
+    String table;
+
+    @Label("Entity")
+    Class<?> entity;
+
+    @Label("Rows")
+    int rows;
+
+    public static HydrationEvent start() {
+        HydrationEvent event = new HydrationEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String table, Class<?> entity, int rows) {
+        end();
+        if (!shouldCommit()) return;
+
+        this.table = table;
+        this.entity = entity;
+        this.rows = rows;
+        commit();
+    }
+}
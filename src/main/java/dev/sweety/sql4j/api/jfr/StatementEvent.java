@@ -0,0 +1,57 @@
+package dev.sweety.sql4j.api.jfr;
+
+import dev.sweety.sql4j.api.connection.QueryEvent;
+import jdk.jfr.*;
+
+import java.sql.SQLException;
+
+// statements are parameterized, so the sql is the statement's shape and never carries bound values
+@Name("dev.sweety.sql4j.Statement")
+@Label("SQL Statement")
+@Category("Sql4J")
+@Description("A statement run through an SQLConnection, a Table or a cursor")
+public final class StatementEvent extends Event {
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Table")
+    String table;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    @Description("Rows read by a select or affected by a write, -1 when the driver does not say")
+    long rows;
+
+    @Label("Batch Size")
+    int batch;
+
+    @Label("Failed")
+    boolean failed;
+
+    public static StatementEvent start() {
+        StatementEvent event = new StatementEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String sql, int batch, long rows, SQLException failure) {
+        finish(null, sql, batch, rows, failure);
+    }
+
+    // statements a Table runs itself name their table, the others have it read from the sql
+    public void finish(String table, String sql, int batch, long rows, SQLException failure) {
+        end();
+        if (!shouldCommit()) return;
+
+        this.sql = sql;
+        this.table = table != null ? table : QueryEvent.table(sql);
+        this.operation = QueryEvent.operation(sql).name();
+        this.batch = batch;
+        this.rows = rows;
+        this.failed = failure != null;
+        commit();
+    }
+}
@@ -0,0 +1,223 @@
+package dev.sweety.sql4j.api.query;
+
+import dev.sweety.sql4j.api.field.IField;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+// a WHERE clause built from column names; values are always bound as parameters, never inlined
+public sealed interface Criteria {
+
+    static Criteria eq(String column, Object value) {
+        return value == null ? isNull(column) : new Compare(column, Compare.Operator.EQ, value);
+    }
+
+    static Criteria ne(String column, Object value) {
+        return value == null ? isNotNull(column) : new Compare(column, Compare.Operator.NE, value);
+    }
+
+    static Criteria lt(String column, Object value) {
+        return new Compare(column, Compare.Operator.LT, value);
+    }
+
+    static Criteria le(String column, Object value) {
+        return new Compare(column, Compare.Operator.LE, value);
+    }
+
+    static Criteria gt(String column, Object value) {
+        return new Compare(column, Compare.Operator.GT, value);
+    }
+
+    static Criteria ge(String column, Object value) {
+        return new Compare(column, Compare.Operator.GE, value);
+    }
+
+    static Criteria between(String column, Object from, Object to) {
+        return new Between(column, from, to);
+    }
+
+    static Criteria in(String column, Collection<?> values) {
+        return new In(column, List.copyOf(values), false);
+    }
+
+    static Criteria in(String column, Object... values) {
+        return new In(column, List.of(values), false);
+    }
+
+    static Criteria notIn(String column, Collection<?> values) {
+        return new In(column, List.copyOf(values), true);
+    }
+
+    static Criteria like(String column, String pattern) {
+        return new Like(column, pattern);
+    }
+
+    static Criteria isNull(String column) {
+        return new IsNull(column, false);
+    }
+
+    static Criteria isNotNull(String column) {
+        return new IsNull(column, true);
+    }
+
+    static Criteria and(Criteria... criteria) {
+        return new Junction(Junction.Operator.AND, List.of(criteria));
+    }
+
+    static Criteria or(Criteria... criteria) {
+        return new Junction(Junction.Operator.OR, List.of(criteria));
+    }
+
+    static Criteria not(Criteria criteria) {
+        return new Not(criteria);
+    }
+
+    default Criteria and(Criteria other) {
+        return and(this, other);
+    }
+
+    default Criteria or(Criteria other) {
+        return or(this, other);
+    }
+
+    void render(StringBuilder sql, List<Object> params, Function<String, IField> fields);
+
+    private static IField field(Function<String, IField> fields, String column) {
+        IField field = fields.apply(column);
+        if (field == null) throw new IllegalArgumentException("unknown column: " + column);
+        return field;
+    }
+
+    // values go through the field's codec, so enums, adapters and referenced entities compare as stored
+    private static Object parameter(IField field, Object value) {
+        try {
+            return field.serialize(value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("cannot serialize " + value + " for column " + field.name(), e);
+        }
+    }
+
+    // operators are a closed set, only column names resolved through the table and their own text reach the sql
+    record Compare(String column, Operator operator, Object value) implements Criteria {
+
+        public enum Operator {
+            EQ("="), NE("<>"), LT("<"), LE("<="), GT(">"), GE(">=");
+
+            private final String sql;
+
+            Operator(String sql) {
+                this.sql = sql;
+            }
+
+            public String sql() {
+                return sql;
+            }
+        }
+
+        public Compare {
+            Objects.requireNonNull(operator, "operator");
+        }
+
+        @Override
+        public void render(StringBuilder sql, List<Object> params, Function<String, IField> fields) {
+            IField field = field(fields, column);
+            sql.append(field.name()).append(' ').append(operator.sql()).append(" ?");
+            params.add(parameter(field, value));
+        }
+    }
+
+    record Between(String column, Object from, Object to) implements Criteria {
+        @Override
+        public void render(StringBuilder sql, List<Object> params, Function<String, IField> fields) {
+            IField field = field(fields, column);
+            sql.append(field.name()).append(" BETWEEN ? AND ?");
+            params.add(parameter(field, from));
+            params.add(parameter(field, to));
+        }
+    }
+
+    record In(String column, List<?> values, boolean negate) implements Criteria {
+        @Override
+        public void render(StringBuilder sql, List<Object> params, Function<String, IField> fields) {
+            IField field = field(fields, column);
+            if (values.isEmpty()) {
+                sql.append(negate ? "1 = 1" : "1 = 0");
+                return;
+            }
+
+            sql.append(field.name()).append(negate ? " NOT IN (" : " IN (");
+            for (int i = 0; i < values.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                params.add(parameter(field, values.get(i)));
+            }
+            sql.append(')');
+        }
+    }
+
+    record Like(String column, String pattern) implements Criteria {
+        @Override
+        public void render(StringBuilder sql, List<Object> params, Function<String, IField> fields) {
+            sql.append(field(fields, column).name()).append(" LIKE ?");
+            params.add(pattern);
+        }
+    }
+
+    record IsNull(String column, boolean negate) implements Criteria {
+        @Override
+        public void render(StringBuilder sql, List<Object> params, Function<String, IField> fields) {
+            sql.append(field(fields, column).name()).append(negate ? " IS NOT NULL" : " IS NULL");
+        }
+    }
+
+    record Junction(Operator operator, List<Criteria> parts) implements Criteria {
+
+        public enum Operator {AND, OR}
+
+        public Junction {
+            Objects.requireNonNull(operator, "operator");
+        }
+
+        @Override
+        public void render(StringBuilder sql, List<Object> params, Function<String, IField> fields) {
+            if (parts.isEmpty()) {
+                sql.append(operator == Operator.AND ? "1 = 1" : "1 = 0");
+                return;
+            }
+
+            sql.append('(');
+            for (int i = 0; i < parts.size(); i++) {
+                if (i > 0) sql.append(' ').append(operator).append(' ');
+                parts.get(i).render(sql, params, fields);
+            }
+            sql.append(')');
+        }
+
+        @Override
+        public Criteria and(Criteria other) {
+            if (operator != Operator.AND) return Criteria.and(this, other);
+            List<Criteria> merged = new ArrayList<>(parts);
+            merged.add(other);
+            return new Junction(operator, List.copyOf(merged));
+        }
+
+        @Override
+        public Criteria or(Criteria other) {
+            if (operator != Operator.OR) return Criteria.or(this, other);
+            List<Criteria> merged = new ArrayList<>(parts);
+            merged.add(other);
+            return new Junction(operator, List.copyOf(merged));
+        }
+    }
+
+    record Not(Criteria criteria) implements Criteria {
+        @Override
+        public void render(StringBuilder sql, List<Object> params, Function<String, IField> fields) {
+            sql.append("NOT (");
+            criteria.render(sql, params, fields);
+            sql.append(')');
+        }
+    }
+}
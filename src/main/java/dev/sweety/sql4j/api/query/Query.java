@@ -0,0 +1,101 @@
+package dev.sweety.sql4j.api.query;
+
+import dev.sweety.sql4j.api.table.Cursor;
+import dev.sweety.sql4j.api.table.ITable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+public final class Query<T> {
+    private final ITable<T> table;
+    private Criteria where;
+    private final List<Sort> orderBy = new ArrayList<>();
+    private int limit = -1;
+    private int offset = 0;
+
+    public Query(ITable<T> table) {
+        this.table = table;
+    }
+
+    public Query<T> where(Criteria criteria) {
+        this.where = criteria;
+        return this;
+    }
+
+    public Query<T> and(Criteria criteria) {
+        this.where = where == null ? criteria : where.and(criteria);
+        return this;
+    }
+
+    public Query<T> or(Criteria criteria) {
+        this.where = where == null ? criteria : where.or(criteria);
+        return this;
+    }
+
+    public Query<T> orderBy(String column) {
+        return orderBy(Sort.asc(column));
+    }
+
+    public Query<T> orderBy(Sort sort) {
+        orderBy.add(sort);
+        return this;
+    }
+
+    public Query<T> limit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("limit must be >= 0");
+        this.limit = limit;
+        return this;
+    }
+
+    public Query<T> offset(int offset) {
+        if (offset < 0) throw new IllegalArgumentException("offset must be >= 0");
+        this.offset = offset;
+        return this;
+    }
+
+    public Criteria where() {
+        return where;
+    }
+
+    public List<Sort> orderBy() {
+        return List.copyOf(orderBy);
+    }
+
+    // -1 when unbounded
+    public int limit() {
+        return limit;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    public List<T> list() {
+        return table.select(this);
+    }
+
+    public CompletableFuture<List<T>> listAsync() {
+        return table.selectAsync(this);
+    }
+
+    public Optional<T> first() {
+        int previous = limit;
+        limit = 1;
+        try {
+            return table.select(this).stream().findFirst();
+        } finally {
+            limit = previous;
+        }
+    }
+
+    public Cursor<T> cursor(int fetchSize) {
+        return table.cursor(fetchSize, this);
+    }
+
+    public Stream<T> stream() {
+        return cursor(ITable.DEFAULT_FETCH_SIZE).stream();
+    }
+}
@@ -0,0 +1,12 @@
+package dev.sweety.sql4j.api.query;
+
+public record Sort(String column, boolean ascending) {
+
+    public static Sort asc(String column) {
+        return new Sort(column, true);
+    }
+
+    public static Sort desc(String column) {
+        return new Sort(column, false);
+    }
+}
@@ -0,0 +1,48 @@
+package dev.sweety.sql4j.api.table;
+
+import dev.sweety.sql4j.api.field.Column;
+
+import java.util.List;
+
+// implemented by the classes the Sql4J annotation processor generates next to each entity (User -> User_Sql4JMapper).
+// Fields are addressed by their position in columns(), which lists the mapped fields in declaration order
+public interface EntityMapper<T> {
+
+    String SUFFIX = "_Sql4JMapper";
+
+    Class<T> type();
+
+    String table();
+
+    List<Column> columns();
+
+    default List<String> fields() {
+        return columns().stream().map(Column::field).toList();
+    }
+
+    T create();
+
+    Object get(T entity, int field);
+
+    void set(T entity, int field, Object value);
+
+    default int getInt(T entity, int field) {
+        return ((Number) get(entity, field)).intValue();
+    }
+
+    default long getLong(T entity, int field) {
+        return ((Number) get(entity, field)).longValue();
+    }
+
+    default void setInt(T entity, int field, int value) {
+        set(entity, field, value);
+    }
+
+    default void setLong(T entity, int field, long value) {
+        set(entity, field, value);
+    }
+
+    default boolean writable(int field) {
+        return true;
+    }
+}
@@ -2,14 +2,23 @@ package dev.sweety.sql4j.api.table;
 
 import dev.sweety.sql4j.api.connection.SQLConnection;
 import dev.sweety.sql4j.api.field.IField;
+import dev.sweety.sql4j.api.query.Query;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface ITable<T> {
 
+    int DEFAULT_BATCH_SIZE = 500;
+
+    int DEFAULT_FETCH_SIZE = 1000;
+
     String name();
 
     Class<T> clazz();
@@ -22,14 +31,82 @@ public interface ITable<T> {
 
     CompletableFuture<Void> insertAsync(T entity);
 
+    default void insertAll(Collection<T> entities) {
+        insertAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    void insertAll(Collection<T> entities, int batchSize);
+
+    default CompletableFuture<Void> insertAllAsync(Collection<T> entities) {
+        return insertAllAsync(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    CompletableFuture<Void> insertAllAsync(Collection<T> entities, int batchSize);
+
+    // one statement that inserts the row or, when its primary key already exists, updates the other columns
+    void upsert(T entity);
+
+    CompletableFuture<Void> upsertAsync(T entity);
+
+    default void upsertAll(Collection<T> entities) {
+        upsertAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    void upsertAll(Collection<T> entities, int batchSize);
+
+    default CompletableFuture<Void> upsertAllAsync(Collection<T> entities) {
+        return upsertAllAsync(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    CompletableFuture<Void> upsertAllAsync(Collection<T> entities, int batchSize);
+
     List<T> selectWhere(String filter, Object... params);
 
     CompletableFuture<List<T>> selectWhereAsync(String filter, Object... params);
 
     List<T> selectAll();
 
+    Optional<T> findById(Object id);
+
+    CompletableFuture<Optional<T>> findByIdAsync(Object id);
+
+    // keys without a matching row are left out of the map
+    <K> Map<K, T> findAllByIds(Collection<K> ids);
+
+    <K> CompletableFuture<Map<K, T>> findAllByIdsAsync(Collection<K> ids);
+
     CompletableFuture<List<T>> selectAllAsync();
 
+    // a null filter iterates the whole table; the cursor holds its connection until closed
+    Cursor<T> cursor(int fetchSize, String filter, Object... params);
+
+    default Cursor<T> cursor(String filter, Object... params) {
+        return cursor(DEFAULT_FETCH_SIZE, filter, params);
+    }
+
+    default Stream<T> stream(int fetchSize, String filter, Object... params) {
+        return cursor(fetchSize, filter, params).stream();
+    }
+
+    default Stream<T> stream(String filter, Object... params) {
+        return stream(DEFAULT_FETCH_SIZE, filter, params);
+    }
+
+    default Stream<T> stream() {
+        return stream(null);
+    }
+
+    default Query<T> query() {
+        return new Query<>(this);
+    }
+
+    List<T> select(Query<T> query);
+
+    CompletableFuture<List<T>> selectAsync(Query<T> query);
+
+    Cursor<T> cursor(int fetchSize, Query<T> query);
+
+    // filters in memory after loading every row, prefer query() which filters in the database
     default List<T> select(Predicate<T>... predicates) {
         List<T> resultList = selectAll();
 
@@ -55,10 +132,34 @@ public interface ITable<T> {
 
     CompletableFuture<Void> updateAsync(T entity);
 
+    default void updateAll(Collection<T> entities) {
+        updateAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    void updateAll(Collection<T> entities, int batchSize);
+
+    default CompletableFuture<Void> updateAllAsync(Collection<T> entities) {
+        return updateAllAsync(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    CompletableFuture<Void> updateAllAsync(Collection<T> entities, int batchSize);
+
     void delete(T entity);
 
     CompletableFuture<Integer> deleteAsync(T entity);
 
+    default void deleteAll(Collection<T> entities) {
+        deleteAll(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    void deleteAll(Collection<T> entities, int batchSize);
+
+    default CompletableFuture<Integer> deleteAllAsync(Collection<T> entities) {
+        return deleteAllAsync(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    CompletableFuture<Integer> deleteAllAsync(Collection<T> entities, int batchSize);
+
     void delete(String query, Object... params);
 
     CompletableFuture<Integer> deleteAsync(String query, Object... params);
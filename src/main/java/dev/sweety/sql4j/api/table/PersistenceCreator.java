@@ -0,0 +1,13 @@
+package dev.sweety.sql4j.api.table;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// marks the constructor rows are built with; parameters are matched to fields by name, which needs -parameters,
+// or by position when the constructor takes every mapped field in declaration order
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.CONSTRUCTOR)
+public @interface PersistenceCreator {
+}
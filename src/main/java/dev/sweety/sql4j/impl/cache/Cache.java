@@ -0,0 +1,15 @@
+package dev.sweety.sql4j.impl.cache;
+
+// implement this to plug a different eviction policy into TableOptions
+public interface Cache<K, V> {
+
+    V get(K key);
+
+    void put(K key, V value);
+
+    void invalidate(K key);
+
+    void clear();
+
+    CacheStats stats();
+}
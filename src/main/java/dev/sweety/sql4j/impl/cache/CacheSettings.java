@@ -0,0 +1,24 @@
+package dev.sweety.sql4j.impl.cache;
+
+import java.time.Duration;
+
+// ttl of zero keeps entries until they are evicted by size
+public record CacheSettings(int maxSize, Duration ttl) {
+
+    public CacheSettings {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be > 0");
+        if (ttl == null || ttl.isNegative()) throw new IllegalArgumentException("ttl must be >= 0");
+    }
+
+    public static CacheSettings defaults() {
+        return new CacheSettings(10_000, Duration.ofMinutes(10));
+    }
+
+    public CacheSettings maxSize(int maxSize) {
+        return new CacheSettings(maxSize, ttl);
+    }
+
+    public CacheSettings ttl(Duration ttl) {
+        return new CacheSettings(maxSize, ttl);
+    }
+}
@@ -0,0 +1,9 @@
+package dev.sweety.sql4j.impl.cache;
+
+public record CacheStats(long hits, long misses, long evictions, long expirations, int size) {
+
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
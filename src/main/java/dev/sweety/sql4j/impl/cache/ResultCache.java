@@ -0,0 +1,89 @@
+package dev.sweety.sql4j.impl.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// results are stored with the table version they were read at; any later write makes them stale
+public final class ResultCache {
+
+    private record Key(String sql, Object[] params) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && sql.equals(key.sql) && Arrays.deepEquals(params, key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + Arrays.deepHashCode(params);
+        }
+    }
+
+    private record Entry(long version, List<?> rows) {
+    }
+
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final Cache<Key, Entry> entries;
+    private final int maxRows;
+
+    // null settings keep only the version counter, which referencing tables still read
+    public ResultCache(CacheSettings settings, int maxRows) {
+        if (maxRows <= 0) throw new IllegalArgumentException("maxRows must be > 0");
+        this.entries = settings == null ? null : new LruCache<>(settings);
+        this.maxRows = maxRows;
+    }
+
+    public boolean enabled() {
+        return entries != null;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    public <T> List<T> get(String sql, Object[] params, long version) {
+        if (entries == null) return null;
+
+        Key key = new Key(sql, params.clone());
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() != version) {
+            entries.invalidate(key);
+            stale.increment();
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        // noinspection unchecked
+        return (List<T>) entry.rows();
+    }
+
+    // results over maxRows are not kept, which bounds memory to roughly maxSize * maxRows rows
+    public <T> void put(String sql, Object[] params, long version, List<T> rows) {
+        if (entries != null && rows.size() <= maxRows) entries.put(new Key(sql, params.clone()), new Entry(version, List.copyOf(rows)));
+    }
+
+    public void clear() {
+        if (entries != null) entries.clear();
+    }
+
+    // entries dropped because the table changed are reported as expirations
+    public CacheStats stats() {
+        if (entries == null) return new CacheStats(0, 0, 0, 0, 0);
+
+        CacheStats lru = entries.stats();
+        return new CacheStats(hits.sum(), misses.sum(), lru.evictions(), lru.expirations() + stale.sum(), lru.size());
+    }
+}
@@ -6,6 +6,7 @@ public class MariaDBConnection extends MySQLConnection {
         super(host, port, database, user, password);
     }
 
+    // MariaDB Connector/J streams with a fetch size on its own, cursorFetch has nothing to switch on
     @Override
     public String url() {
         return "jdbc:mariadb://" + host() + ":" + port() + "/" + database();
@@ -1,5 +1,7 @@
 package dev.sweety.sql4j.impl.connection;
 
+import dev.sweety.sql4j.api.connection.Dialect;
+import dev.sweety.sql4j.api.connection.Instrumentation;
 import dev.sweety.sql4j.api.connection.SQLConnection;
 
 import java.sql.Connection;
@@ -15,7 +17,10 @@ public class MySQLConnection implements SQLConnection {
     private String database;
     private String user;
     private String password;
+    private boolean cursorFetch;
     private Connection connection;
+    private Executor executor = EXECUTOR;
+    private final Instrumentation instrumentation = new Instrumentation();
 
     public MySQLConnection(String host, int port, String database, String user, String password) {
         this.host = host;
@@ -27,23 +32,39 @@ public class MySQLConnection implements SQLConnection {
 
     @Override
     public Connection connect() throws SQLException {
-        return this.connection = DriverManager.getConnection(url(), user, password);
+        return DriverManager.getConnection(url(), user, password);
     }
 
     @Override
     public Connection connection() throws SQLException {
-        if (connection == null || connection.isClosed()) return connect();
+        if (connection == null || connection.isClosed()) connection = connect();
         return connection;
     }
 
     @Override
     public String url() {
-        return "jdbc:mysql://" + host + ":" + port + "/" + database;
+        // useCursorFetch makes Connector/J prepare every statement on the server, so only cursor users pay for it
+        return "jdbc:mysql://" + host + ":" + port + "/" + database + (cursorFetch ? "?useCursorFetch=true" : "");
+    }
+
+    @Override
+    public Dialect dialect() {
+        return Dialect.MYSQL;
     }
 
     @Override
     public Executor executor() {
-        return EXECUTOR;
+        return executor;
+    }
+
+    @Override
+    public void executor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public Instrumentation instrumentation() {
+        return instrumentation;
     }
 
     @Override
@@ -92,4 +113,14 @@ public class MySQLConnection implements SQLConnection {
     public void password(String password) {
         this.password = password;
     }
+
+    public boolean cursorFetch() {
+        return cursorFetch;
+    }
+
+    // table cursors stream through a server-side cursor instead of reading the whole result first;
+    // applies to connections opened afterwards
+    public void cursorFetch(boolean cursorFetch) {
+        this.cursorFetch = cursorFetch;
+    }
 }
@@ -0,0 +1,99 @@
+package dev.sweety.sql4j.impl.connection;
+
+import dev.sweety.sql4j.api.connection.Dialect;
+import dev.sweety.sql4j.api.connection.Instrumentation;
+import dev.sweety.sql4j.api.connection.SQLConnection;
+import dev.sweety.sql4j.api.connection.SqlExecutors;
+import dev.sweety.sql4j.impl.connection.pool.ConnectionPool;
+import dev.sweety.sql4j.impl.connection.pool.PoolSettings;
+import dev.sweety.sql4j.impl.connection.pool.PoolStats;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+
+public class PooledConnection implements SQLConnection {
+    private final SQLConnection delegate;
+    private final ConnectionPool pool;
+    private Executor executor;
+
+    public PooledConnection(SQLConnection delegate) {
+        this(delegate, PoolSettings.defaults());
+    }
+
+    // async work is capped at the pool size so callers queue for a worker instead of for a connection
+    public PooledConnection(SQLConnection delegate, PoolSettings settings) {
+        this(delegate, settings, SqlExecutors.virtual(settings.maxSize()));
+    }
+
+    public PooledConnection(SQLConnection delegate, PoolSettings settings, Executor executor) {
+        this.delegate = delegate;
+        this.pool = new ConnectionPool(delegate, settings);
+        this.executor = executor;
+    }
+
+    @Override
+    public Connection connect() throws SQLException {
+        return pool.borrow();
+    }
+
+    @Override
+    public Connection connection() throws SQLException {
+        return pool.borrow();
+    }
+
+    @Override
+    public String url() {
+        return delegate.url();
+    }
+
+    @Override
+    public Dialect dialect() {
+        return delegate.dialect();
+    }
+
+    @Override
+    public Executor executor() {
+        return executor;
+    }
+
+    @Override
+    public void executor(Executor executor) {
+        this.executor = executor;
+    }
+
+    // shared with the delegate, which only ever opens the pool's physical connections
+    @Override
+    public Instrumentation instrumentation() {
+        return delegate.instrumentation();
+    }
+
+    @Override
+    public String database() {
+        return delegate.database();
+    }
+
+    @Override
+    public void database(String database) {
+        delegate.database(database);
+        pool.clear();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        pool.close();
+        delegate.close();
+    }
+
+    public SQLConnection delegate() {
+        return delegate;
+    }
+
+    public ConnectionPool pool() {
+        return pool;
+    }
+
+    public PoolStats stats() {
+        return pool.stats();
+    }
+}
@@ -1,41 +1,148 @@
 package dev.sweety.sql4j.impl.connection;
 
+import dev.sweety.sql4j.api.SqlUtils;
+import dev.sweety.sql4j.api.connection.Dialect;
+import dev.sweety.sql4j.api.connection.Instrumentation;
 import dev.sweety.sql4j.api.connection.SQLConnection;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.concurrent.Executor;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.*;
 
 import static dev.sweety.sql4j.api.SqlUtils.EXECUTOR;
 
 public class SQLiteConnection implements SQLConnection {
+
+    private static final ScheduledExecutorService CHECKPOINTS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Sql4J-sqlite-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private String database;
     private Connection connection;
+    private Executor executor = EXECUTOR;
+    private final Instrumentation instrumentation = new Instrumentation();
+    private final SQLiteSettings settings;
+    private final List<String> pragmas;
+    private ScheduledFuture<?> checkpoint;
+    private Connection anchor;
 
+    // the driver's own defaults, as before profiles existed; pass SQLiteSettings.defaults() to opt into the tuned one
     public SQLiteConnection(String database) {
+        this(database, SQLiteSettings.none());
+    }
+
+    public SQLiteConnection(String database, SQLiteSettings settings) {
         this.database = database;
+        this.settings = settings;
+        this.pragmas = settings.pragmas();
     }
 
     @Override
     public Connection connect() throws SQLException {
-        return this.connection = DriverManager.getConnection(url());
+        Connection connection = open();
+        if (settings.journalMode() == SQLiteSettings.JournalMode.WAL && anchor == null) keepOpen();
+        return connection;
+    }
+
+    // every connection gets the pragmas, most of them only last as long as the connection does
+    private Connection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url());
+        if (!pragmas.isEmpty()) {
+            try (Statement statement = connection.createStatement()) {
+                for (String pragma : pragmas) statement.execute(pragma);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    // statements close the connection they ran on, and in WAL mode the last connection to close checkpoints and
+    // deletes the log. An idle handle keeps the log between statements, the periodic checkpoint keeps it small
+    private synchronized void keepOpen() throws SQLException {
+        if (anchor != null) return;
+
+        anchor = open();
+        // a connection only joins the log once it has read from it
+        try (Statement statement = anchor.createStatement()) {
+            statement.execute("SELECT 1 FROM sqlite_master LIMIT 1");
+        }
+        if (!settings.checkpoints()) return;
+
+        long interval = settings.checkpointInterval().toMillis();
+        checkpoint = CHECKPOINTS.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void release() throws SQLException {
+        if (checkpoint != null) checkpoint.cancel(false);
+        checkpoint = null;
+
+        if (anchor != null) anchor.close();
+        anchor = null;
+    }
+
+    // PASSIVE copies what it can without waiting on readers or writers; it runs on the idle handle,
+    // which carries the profile's busy_timeout, so the timer never touches the one statements share
+    private synchronized void checkpoint() {
+        if (anchor == null) return;
+
+        try (Statement statement = anchor.createStatement()) {
+            statement.execute("PRAGMA wal_checkpoint(PASSIVE)");
+        } catch (SQLException e) {
+            SqlUtils.logger.log(System.Logger.Level.ERROR, "wal_checkpoint: " + url());
+            e.printStackTrace(System.err);
+        }
+    }
+
+    public SQLiteSettings settings() {
+        return settings;
     }
 
     @Override
     public Connection connection() throws SQLException {
-        if (connection == null || connection.isClosed()) return connect();
+        if (connection == null || connection.isClosed()) connection = connect();
         return connection;
     }
 
     @Override
     public void close() throws SQLException {
+        if (settings.optimizeOnClose()) optimize();
+
         if (connection != null && !connection.isClosed()) connection.close();
+        release();
+    }
+
+    // the statistics PRAGMA optimize gathers are stored in the file, so later connections plan with them.
+    // 0x10002 looks at every table rather than only those the connection queried, so it runs on a connection
+    // that is still open, the idle handle first, instead of opening one for it
+    private synchronized void optimize() throws SQLException {
+        Connection target = anchor != null ? anchor : connection;
+        if (target == null || target.isClosed()) return;
+
+        try (Statement statement = target.createStatement()) {
+            statement.execute("PRAGMA optimize=0x10002");
+        }
     }
 
     @Override
     public Executor executor() {
-        return EXECUTOR;
+        return executor;
+    }
+
+    @Override
+    public void executor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public Instrumentation instrumentation() {
+        return instrumentation;
     }
 
     @Override
@@ -43,6 +150,11 @@ public class SQLiteConnection implements SQLConnection {
         return "jdbc:sqlite:" + (this.database) + ".db";
     }
 
+    @Override
+    public Dialect dialect() {
+        return Dialect.SQLITE;
+    }
+
     @Override
     public String database() {
         return database;
@@ -50,6 +162,13 @@ public class SQLiteConnection implements SQLConnection {
 
     @Override
     public void database(String database) {
+        // the idle handle and the checkpoints belong to the previous file
+        try {
+            release();
+        } catch (SQLException e) {
+            SqlUtils.logger.log(System.Logger.Level.ERROR, "failed to close " + url());
+            e.printStackTrace(System.err);
+        }
         this.database = database;
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package dev.sweety.sql4j.impl.connection;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// pragmas applied to every connection SQLiteConnection opens. A null mode or duration, or a non-positive size,
+// leaves the driver's default in place; none() changes nothing
+public record SQLiteSettings(JournalMode journalMode, Synchronous synchronous, long mmapSize, long cacheSizeKib,
+                             TempStore tempStore, Duration busyTimeout, Duration checkpointInterval,
+                             boolean optimizeOnClose) {
+
+    public enum JournalMode {DELETE, TRUNCATE, PERSIST, MEMORY, WAL, OFF}
+
+    public enum Synchronous {OFF, NORMAL, FULL, EXTRA}
+
+    public enum TempStore {DEFAULT, FILE, MEMORY}
+
+    // WAL with synchronous=NORMAL only fsyncs at checkpoints: a power loss can drop the last commits, never corrupt the file
+    public static SQLiteSettings defaults() {
+        return new SQLiteSettings(JournalMode.WAL, Synchronous.NORMAL, 256L << 20, 64L << 10, TempStore.MEMORY,
+                Duration.ofSeconds(5), Duration.ofMinutes(1), true);
+    }
+
+    public static SQLiteSettings none() {
+        return new SQLiteSettings(null, null, 0, 0, null, null, null, false);
+    }
+
+    public SQLiteSettings journalMode(JournalMode journalMode) {
+        return new SQLiteSettings(journalMode, synchronous, mmapSize, cacheSizeKib, tempStore, busyTimeout, checkpointInterval, optimizeOnClose);
+    }
+
+    public SQLiteSettings synchronous(Synchronous synchronous) {
+        return new SQLiteSettings(journalMode, synchronous, mmapSize, cacheSizeKib, tempStore, busyTimeout, checkpointInterval, optimizeOnClose);
+    }
+
+    public SQLiteSettings mmapSize(long mmapSize) {
+        return new SQLiteSettings(journalMode, synchronous, mmapSize, cacheSizeKib, tempStore, busyTimeout, checkpointInterval, optimizeOnClose);
+    }
+
+    public SQLiteSettings cacheSizeKib(long cacheSizeKib) {
+        return new SQLiteSettings(journalMode, synchronous, mmapSize, cacheSizeKib, tempStore, busyTimeout, checkpointInterval, optimizeOnClose);
+    }
+
+    public SQLiteSettings tempStore(TempStore tempStore) {
+        return new SQLiteSettings(journalMode, synchronous, mmapSize, cacheSizeKib, tempStore, busyTimeout, checkpointInterval, optimizeOnClose);
+    }
+
+    public SQLiteSettings busyTimeout(Duration busyTimeout) {
+        return new SQLiteSettings(journalMode, synchronous, mmapSize, cacheSizeKib, tempStore, busyTimeout, checkpointInterval, optimizeOnClose);
+    }
+
+    // only used in WAL mode; null or zero leaves checkpoints to SQLite's automatic ones
+    public SQLiteSettings checkpointInterval(Duration checkpointInterval) {
+        return new SQLiteSettings(journalMode, synchronous, mmapSize, cacheSizeKib, tempStore, busyTimeout, checkpointInterval, optimizeOnClose);
+    }
+
+    public SQLiteSettings optimizeOnClose(boolean optimizeOnClose) {
+        return new SQLiteSettings(journalMode, synchronous, mmapSize, cacheSizeKib, tempStore, busyTimeout, checkpointInterval, optimizeOnClose);
+    }
+
+    public boolean checkpoints() {
+        return journalMode == JournalMode.WAL && checkpointInterval != null && checkpointInterval.isPositive();
+    }
+
+    // busy_timeout goes first so switching the journal mode waits for other connections instead of failing
+    public List<String> pragmas() {
+        List<String> pragmas = new ArrayList<>();
+        if (busyTimeout != null) pragmas.add("PRAGMA busy_timeout = " + busyTimeout.toMillis());
+        if (journalMode != null) pragmas.add("PRAGMA journal_mode = " + journalMode);
+        if (synchronous != null) pragmas.add("PRAGMA synchronous = " + synchronous);
+        if (mmapSize > 0) pragmas.add("PRAGMA mmap_size = " + mmapSize);
+        // a negative cache_size is read as KiB rather than pages
+        if (cacheSizeKib > 0) pragmas.add("PRAGMA cache_size = -" + cacheSizeKib);
+        if (tempStore != null) pragmas.add("PRAGMA temp_store = " + tempStore);
+        return List.copyOf(pragmas);
+    }
+}
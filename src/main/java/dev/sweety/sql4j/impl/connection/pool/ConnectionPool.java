@@ -0,0 +1,299 @@
+package dev.sweety.sql4j.impl.connection.pool;
+
+import dev.sweety.sql4j.api.SqlUtils;
+import dev.sweety.sql4j.api.connection.SQLConnection;
+import dev.sweety.sql4j.api.jfr.ConnectionReleaseEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConnectionPool implements AutoCloseable {
+
+    // connections idle for less than this are handed out without an isValid round trip
+    private static final long VALIDATION_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Sql4J-pool-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SQLConnection factory;
+    private final PoolSettings settings;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Entry> idle = new ConcurrentLinkedDeque<>();
+    private final ScheduledFuture<?> evictionTask;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(SQLConnection factory, PoolSettings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+
+        long interval = settings.evictionInterval().toMillis();
+        this.evictionTask = interval <= 0 ? null : EVICTOR.scheduleWithFixedDelay(this::evict, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(settings.maxWait().toNanos(), TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + settings.maxWait().toMillis() + "ms waiting for a connection (" + stats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        try {
+            Entry entry = take();
+            active.incrementAndGet();
+            borrowed.increment();
+            return entry.handle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Entry take() throws SQLException {
+        Entry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            long now = System.nanoTime();
+            if (expired(entry, now)) {
+                destroy(entry);
+                evicted.increment();
+                continue;
+            }
+            if (now - entry.lastReturned > VALIDATION_THRESHOLD && !valid(entry)) {
+                validationFailures.increment();
+                destroy(entry);
+                continue;
+            }
+            return entry;
+        }
+        return create();
+    }
+
+    private Entry create() throws SQLException {
+        total.incrementAndGet();
+        return connect();
+    }
+
+    // the caller has already counted the connection in total
+    private Entry connect() throws SQLException {
+        try {
+            Connection connection = factory.connect();
+            created.increment();
+            return new Entry(connection, System.nanoTime());
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean valid(Entry entry) {
+        try {
+            return entry.connection.isValid((int) Math.max(1, settings.validationTimeout().toSeconds()));
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean expired(Entry entry, long now) {
+        return !settings.maxLifetime().isZero() && now - entry.createdAt > settings.maxLifetime().toNanos();
+    }
+
+    private void release(Entry entry) {
+        active.decrementAndGet();
+        try {
+            if (closed || entry.connection.isClosed()) {
+                destroy(entry);
+                return;
+            }
+            if (!entry.connection.getAutoCommit()) {
+                entry.connection.rollback();
+                entry.connection.setAutoCommit(true);
+            }
+            entry.lastReturned = System.nanoTime();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            destroy(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(Entry entry) {
+        total.decrementAndGet();
+        destroyed.increment();
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            SqlUtils.logger.log(System.Logger.Level.WARNING, "failed to close pooled connection", e);
+        }
+    }
+
+    private void evict() {
+        if (closed) return;
+
+        long now = System.nanoTime();
+        long idleTimeout = settings.idleTimeout().toNanos();
+
+        Iterator<Entry> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            boolean stale = idle.size() > settings.minIdle() && now - entry.lastReturned > idleTimeout;
+            if ((stale || expired(entry, now)) && idle.removeFirstOccurrence(entry)) {
+                destroy(entry);
+                evicted.increment();
+            }
+        }
+
+        while (!closed && idle.size() < settings.minIdle()) {
+            // a fill holds a permit like a borrower and reserves its slot in total before connecting, so a borrower
+            // that finds no idle connection can never create past maxSize alongside it
+            if (!permits.tryAcquire()) break;
+            try {
+                int size = total.get();
+                if (size >= settings.maxSize() || !total.compareAndSet(size, size + 1)) break;
+                Entry entry = connect();
+                entry.lastReturned = System.nanoTime();
+                idle.offerLast(entry);
+            } catch (SQLException e) {
+                SqlUtils.logger.log(System.Logger.Level.WARNING, "failed to fill connection pool", e);
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    public void clear() {
+        Entry entry;
+        while ((entry = idle.pollFirst()) != null) destroy(entry);
+    }
+
+    public PoolStats stats() {
+        return new PoolStats(total.get(), active.get(), idle.size(), waiting.get(),
+                created.sum(), destroyed.sum(), borrowed.sum(), timeouts.sum(), validationFailures.sum(), evicted.sum());
+    }
+
+    public PoolSettings settings() {
+        return settings;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (evictionTask != null) evictionTask.cancel(false);
+        clear();
+    }
+
+    private final class Entry {
+        private final Connection connection;
+        private final long createdAt;
+        private volatile long lastReturned;
+
+        private Entry(Connection connection, long createdAt) {
+            this.connection = connection;
+            this.createdAt = createdAt;
+            this.lastReturned = createdAt;
+        }
+
+        private Connection handle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Handle(this));
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final Entry entry;
+        // null unless the JFR event was enabled when the connection was borrowed
+        private final ConnectionReleaseEvent lease = ConnectionReleaseEvent.start();
+        private volatile boolean released;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    synchronized (this) {
+                        if (released) return null;
+                        released = true;
+                    }
+                    release(entry);
+                    if (lease != null) lease.finish(factory);
+                    return null;
+                }
+                case "isClosed" -> {
+                    return released || entry.connection.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + entry.connection + "]";
+                }
+                // the physical connection would outlive the handle and could be closed behind the pool's back,
+                // so unwrapping stops at the handle; other driver interfaces still come from the connection
+                case "unwrap" -> {
+                    Class<?> type = (Class<?>) args[0];
+                    if (type.isInstance(proxy)) return proxy;
+                    if (Connection.class.isAssignableFrom(type))
+                        throw new SQLException("A pooled connection cannot be unwrapped to " + type.getName());
+                }
+                case "isWrapperFor" -> {
+                    Class<?> type = (Class<?>) args[0];
+                    if (type.isInstance(proxy)) return true;
+                    if (Connection.class.isAssignableFrom(type)) return false;
+                }
+            }
+
+            if (released) throw new SQLException("Connection has been returned to the pool");
+
+            try {
+                return method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package dev.sweety.sql4j.impl.connection.pool;
+
+import java.time.Duration;
+
+public record PoolSettings(int maxSize, int minIdle, Duration maxWait, Duration idleTimeout, Duration maxLifetime,
+                           Duration validationTimeout, Duration evictionInterval) {
+
+    public PoolSettings {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be at least 1");
+        if (minIdle < 0 || minIdle > maxSize) throw new IllegalArgumentException("minIdle must be between 0 and maxSize");
+    }
+
+    public static PoolSettings defaults() {
+        return new PoolSettings(10, 0, Duration.ofSeconds(30), Duration.ofMinutes(10), Duration.ofMinutes(30),
+                Duration.ofSeconds(5), Duration.ofSeconds(30));
+    }
+
+    public PoolSettings maxSize(int maxSize) {
+        return new PoolSettings(maxSize, Math.min(minIdle, maxSize), maxWait, idleTimeout, maxLifetime, validationTimeout, evictionInterval);
+    }
+
+    public PoolSettings minIdle(int minIdle) {
+        return new PoolSettings(maxSize, minIdle, maxWait, idleTimeout, maxLifetime, validationTimeout, evictionInterval);
+    }
+
+    public PoolSettings maxWait(Duration maxWait) {
+        return new PoolSettings(maxSize, minIdle, maxWait, idleTimeout, maxLifetime, validationTimeout, evictionInterval);
+    }
+
+    public PoolSettings idleTimeout(Duration idleTimeout) {
+        return new PoolSettings(maxSize, minIdle, maxWait, idleTimeout, maxLifetime, validationTimeout, evictionInterval);
+    }
+
+    public PoolSettings maxLifetime(Duration maxLifetime) {
+        return new PoolSettings(maxSize, minIdle, maxWait, idleTimeout, maxLifetime, validationTimeout, evictionInterval);
+    }
+
+    public PoolSettings validationTimeout(Duration validationTimeout) {
+        return new PoolSettings(maxSize, minIdle, maxWait, idleTimeout, maxLifetime, validationTimeout, evictionInterval);
+    }
+
+    public PoolSettings evictionInterval(Duration evictionInterval) {
+        return new PoolSettings(maxSize, minIdle, maxWait, idleTimeout, maxLifetime, validationTimeout, evictionInterval);
+    }
+}
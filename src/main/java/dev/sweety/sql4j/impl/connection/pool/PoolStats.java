@@ -0,0 +1,5 @@
+package dev.sweety.sql4j.impl.connection.pool;
+
+public record PoolStats(int total, int active, int idle, int waiting, long created, long destroyed, long borrowed,
+                        long timeouts, long validationFailures, long evicted) {
+}
@@ -0,0 +1,290 @@
+package dev.sweety.sql4j.impl.fields;
+
+import dev.sweety.sql4j.api.table.EntityMapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+public interface FieldAccessor {
+
+    Object get(Object target);
+
+    void set(Object target, Object value);
+
+    default int getInt(Object target) {
+        return ((Number) get(target)).intValue();
+    }
+
+    default long getLong(Object target) {
+        return ((Number) get(target)).longValue();
+    }
+
+    default void setInt(Object target, int value) {
+        set(target, value);
+    }
+
+    default void setLong(Object target, long value) {
+        set(target, value);
+    }
+
+    default boolean writable() {
+        return true;
+    }
+
+    // one handle pair per field, held by the accessor rather than in a static final, so the JIT cannot fold it:
+    // what this saves over core reflection (itself built on method handles since JDK 18) is the per-call access
+    // check and, through getInt/getLong, the boxing. Generated mappers skip handles altogether
+    static FieldAccessor of(Field field) {
+        MethodHandle getter, setter;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+            getter = lookup.unreflectGetter(field);
+            setter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            // privateLookupIn is refused when the declaring module does not open the package, and so would setAccessible be
+            throw new IllegalStateException("cannot access " + field.getDeclaringClass().getName() + "." + field.getName() + ": "
+                    + field.getDeclaringClass().getModule() + " must open " + field.getDeclaringClass().getPackageName()
+                    + " to Sql4J, or generate a mapper for it with the annotation processor", e);
+        }
+
+        Class<?> type = field.getType();
+        if (type == int.class) return new IntAccessor(field, getter, setter);
+        if (type == long.class) return new LongAccessor(field, getter, setter);
+        return new ObjectAccessor(field, getter, setter);
+    }
+
+    // generated mappers reach the field directly, no method handle involved
+    static <T> FieldAccessor of(EntityMapper<T> mapper, int index) {
+        return new Mapped<>(mapper, index);
+    }
+
+    // narrows numbers to a primitive type and turns null into its zero value; other types pass through
+    static Object coerce(Class<?> type, Object value) {
+        if (!type.isPrimitive()) return value;
+        if (value instanceof Number n) {
+            if (type == int.class) return n.intValue();
+            if (type == long.class) return n.longValue();
+            if (type == double.class) return n.doubleValue();
+            if (type == float.class) return n.floatValue();
+            if (type == short.class) return n.shortValue();
+            if (type == byte.class) return n.byteValue();
+            if (type == boolean.class) return n.intValue() != 0;
+            if (type == char.class) return (char) n.intValue();
+        }
+        if (value == null) {
+            if (type == boolean.class) return false;
+            if (type == char.class) return '\0';
+            return coerce(type, 0);
+        }
+        return value;
+    }
+
+    private static IllegalStateException readOnly(Field field) {
+        return new IllegalStateException("field " + field.getDeclaringClass().getSimpleName() + "." + field.getName() + " is final");
+    }
+
+    private static RuntimeException rethrow(Throwable throwable) {
+        if (throwable instanceof RuntimeException e) return e;
+        if (throwable instanceof Error e) throw e;
+        return new IllegalStateException(throwable);
+    }
+
+    final class ObjectAccessor implements FieldAccessor {
+        private final Field field;
+        private final Class<?> type;
+        private final MethodHandle getter, setter;
+
+        private ObjectAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+            this.field = field;
+            this.type = field.getType();
+            this.getter = getter.asType(MethodType.methodType(Object.class, Object.class));
+            this.setter = setter == null ? null : setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        @Override
+        public Object get(Object target) {
+            try {
+                return (Object) getter.invokeExact(target);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public void set(Object target, Object value) {
+            if (setter == null) throw readOnly(field);
+            try {
+                setter.invokeExact(target, type.isPrimitive() ? coerce(type, value) : value);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public boolean writable() {
+            return setter != null;
+        }
+
+    }
+
+    final class IntAccessor implements FieldAccessor {
+        private final Field field;
+        private final MethodHandle getter, setter;
+
+        private IntAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+            this.field = field;
+            this.getter = getter.asType(MethodType.methodType(int.class, Object.class));
+            this.setter = setter == null ? null : setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+        }
+
+        // boxes; the read and batch paths call getInt
+        @Override
+        public Object get(Object target) {
+            return getInt(target);
+        }
+
+        @Override
+        public void set(Object target, Object value) {
+            setInt(target, value == null ? 0 : ((Number) value).intValue());
+        }
+
+        @Override
+        public int getInt(Object target) {
+            try {
+                return (int) getter.invokeExact(target);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public long getLong(Object target) {
+            return getInt(target);
+        }
+
+        @Override
+        public void setInt(Object target, int value) {
+            if (setter == null) throw readOnly(field);
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public void setLong(Object target, long value) {
+            setInt(target, Math.toIntExact(value));
+        }
+
+        @Override
+        public boolean writable() {
+            return setter != null;
+        }
+    }
+
+    final class LongAccessor implements FieldAccessor {
+        private final Field field;
+        private final MethodHandle getter, setter;
+
+        private LongAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+            this.field = field;
+            this.getter = getter.asType(MethodType.methodType(long.class, Object.class));
+            this.setter = setter == null ? null : setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+        }
+
+        // boxes; the read and batch paths call getLong
+        @Override
+        public Object get(Object target) {
+            return getLong(target);
+        }
+
+        @Override
+        public void set(Object target, Object value) {
+            setLong(target, value == null ? 0L : ((Number) value).longValue());
+        }
+
+        @Override
+        public int getInt(Object target) {
+            return Math.toIntExact(getLong(target));
+        }
+
+        @Override
+        public long getLong(Object target) {
+            try {
+                return (long) getter.invokeExact(target);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public void setInt(Object target, int value) {
+            setLong(target, value);
+        }
+
+        @Override
+        public void setLong(Object target, long value) {
+            if (setter == null) throw readOnly(field);
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public boolean writable() {
+            return setter != null;
+        }
+    }
+
+    // noinspection unchecked
+    final class Mapped<T> implements FieldAccessor {
+        private final EntityMapper<T> mapper;
+        private final int index;
+
+        private Mapped(EntityMapper<T> mapper, int index) {
+            this.mapper = mapper;
+            this.index = index;
+        }
+
+        @Override
+        public Object get(Object target) {
+            return mapper.get((T) target, index);
+        }
+
+        @Override
+        public void set(Object target, Object value) {
+            mapper.set((T) target, index, value);
+        }
+
+        @Override
+        public int getInt(Object target) {
+            return mapper.getInt((T) target, index);
+        }
+
+        @Override
+        public long getLong(Object target) {
+            return mapper.getLong((T) target, index);
+        }
+
+        @Override
+        public void setInt(Object target, int value) {
+            mapper.setInt((T) target, index, value);
+        }
+
+        @Override
+        public void setLong(Object target, long value) {
+            mapper.setLong((T) target, index, value);
+        }
+
+        @Override
+        public boolean writable() {
+            return mapper.writable(index);
+        }
+    }
+}
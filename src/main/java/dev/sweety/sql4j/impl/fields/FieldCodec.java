@@ -0,0 +1,182 @@
+package dev.sweety.sql4j.impl.fields;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import dev.sweety.sql4j.api.adapter.Adapter;
+import dev.sweety.sql4j.api.field.Column;
+import dev.sweety.sql4j.api.jfr.ForeignKeyEvent;
+import dev.sweety.sql4j.impl.table.Table;
+import dev.sweety.sql4j.impl.table.TableManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static dev.sweety.sql4j.api.SqlUtils.gson;
+
+public interface FieldCodec {
+
+    Object serialize(Object value) throws Exception;
+
+    Object deserialize(Object value) throws Exception;
+
+    // codecs are pure CPU work, so the async variants complete on the calling thread
+    default CompletableFuture<Object> serializeAsync(Object value, Executor executor) {
+        try {
+            return CompletableFuture.completedFuture(serialize(value));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    default CompletableFuture<Object> deserializeAsync(Object value, Executor executor) {
+        try {
+            return CompletableFuture.completedFuture(deserialize(value));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    static FieldCodec of(Column column, String foreignKeyColumn) {
+        // noinspection unchecked
+        if (column.codec() == Column.Codec.ADAPTER) return new AdapterCodec((Adapter<Object>) column.adapter());
+
+        FieldCodec codec = valueCodec(column);
+        return foreignKeyColumn == null ? codec : new ForeignKeyCodec(column.type(), foreignKeyColumn, codec);
+    }
+
+    private static FieldCodec valueCodec(Column column) {
+        return switch (column.codec()) {
+            case NATIVE, ADAPTER -> NativeCodec.INSTANCE;
+            // noinspection unchecked,rawtypes
+            case ENUM -> new EnumCodec((Class) column.type());
+            // noinspection unchecked
+            case JSON -> new GsonCodec((TypeAdapter<Object>) gson.getAdapter(TypeToken.get(column.genericType())));
+        };
+    }
+
+    record AdapterCodec(Adapter<Object> adapter) implements FieldCodec {
+
+        @Override
+        public String serialize(Object value) {
+            return adapter.serialize(value);
+        }
+
+        @Override
+        public Object deserialize(Object value) {
+            return adapter.deserialize(value.toString());
+        }
+    }
+
+    enum NativeCodec implements FieldCodec {
+        INSTANCE;
+
+        // supported types are bound as they are, see SQLConnection#setParameter
+        @Override
+        public Object serialize(Object value) {
+            return value;
+        }
+
+        @Override
+        public Object deserialize(Object value) {
+            return value;
+        }
+    }
+
+    record EnumCodec<E extends Enum<E>>(Class<E> type) implements FieldCodec {
+
+        @Override
+        public String serialize(Object value) {
+            return ((Enum<?>) value).name();
+        }
+
+        @Override
+        public Object deserialize(Object value) {
+            return Enum.valueOf(type, value.toString());
+        }
+    }
+
+    record GsonCodec(TypeAdapter<Object> adapter) implements FieldCodec {
+
+        @Override
+        public String serialize(Object value) {
+            return adapter.toJson(value);
+        }
+
+        @Override
+        public Object deserialize(Object value) throws Exception {
+            return adapter.fromJson(value.toString());
+        }
+    }
+
+    // the referenced table may be registered after this field, so it is looked up until first found
+    final class ForeignKeyCodec implements FieldCodec {
+        private final Class<?> type;
+        private final String column;
+        private final FieldCodec fallback;
+        private volatile Table<?> table;
+
+        private ForeignKeyCodec(Class<?> type, String column, FieldCodec fallback) {
+            this.type = type;
+            this.column = column;
+            this.fallback = fallback;
+        }
+
+        public Table<?> table() {
+            Table<?> table = this.table;
+            if (table == null) {
+                table = TableManager.get(type).orElse(null);
+                this.table = table;
+            }
+            return table;
+        }
+
+        public String column() {
+            Table<?> table = table();
+            return column.isBlank() && table != null ? table.primaryKey().name() : column;
+        }
+
+        // primary key lookups go through findById and so through the referenced table's entity cache
+        private boolean byPrimaryKey(Table<?> table) {
+            return table.primaryKey() != null && table.primaryKey().name().equalsIgnoreCase(column());
+        }
+
+        @Override
+        public Object serialize(Object value) throws Exception {
+            Table<?> table = table();
+            return table == null ? fallback.serialize(value) : table.primaryKey().get(value);
+        }
+
+        @Override
+        public Object deserialize(Object value) throws Exception {
+            Table<?> table = table();
+            if (table == null) return fallback.deserialize(value);
+
+            ForeignKeyEvent event = ForeignKeyEvent.start();
+            Object referenced;
+            if (byPrimaryKey(table)) referenced = table.findById(value).orElse(null);
+            else {
+                List<?> objects = table.selectWhere(column() + " = ?", value);
+                referenced = objects.isEmpty() ? null : objects.getFirst();
+            }
+            event.finish(table.name(), column(), 1, referenced == null ? 0 : 1);
+            return referenced;
+        }
+
+        @Override
+        public CompletableFuture<Object> serializeAsync(Object value, Executor executor) {
+            Table<?> table = table();
+            return table == null ? fallback.serializeAsync(value, executor) : table.primaryKey().getAsync(value);
+        }
+
+        @Override
+        public CompletableFuture<Object> deserializeAsync(Object value, Executor executor) {
+            Table<?> table = table();
+            if (table == null) return fallback.deserializeAsync(value, executor);
+            if (byPrimaryKey(table)) return table.findByIdAsync(value).thenApply(found -> found.orElse(null));
+
+            return table.selectWhereAsync(column() + " = ?", value)
+                    .thenApply(objects -> objects.isEmpty() ? null : objects.getFirst());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package dev.sweety.sql4j.impl.fields;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.*;
+
+public enum JdbcType {
+
+    STRING(Types.VARCHAR) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            return resultSet.getString(column);
+        }
+    },
+
+    PRIMITIVE_INT(Types.INTEGER) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            int value = resultSet.getInt(column);
+            return resultSet.wasNull() ? null : value;
+        }
+
+        @Override
+        public void hydrate(ResultSet resultSet, int column, FieldAccessor accessor, Object entity) throws SQLException {
+            accessor.setInt(entity, resultSet.getInt(column));
+        }
+    },
+
+    INT(Types.INTEGER) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            int value = resultSet.getInt(column);
+            return resultSet.wasNull() ? null : value;
+        }
+    },
+
+    PRIMITIVE_LONG(Types.BIGINT) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            long value = resultSet.getLong(column);
+            return resultSet.wasNull() ? null : value;
+        }
+
+        @Override
+        public void hydrate(ResultSet resultSet, int column, FieldAccessor accessor, Object entity) throws SQLException {
+            accessor.setLong(entity, resultSet.getLong(column));
+        }
+    },
+
+    LONG(Types.BIGINT) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            long value = resultSet.getLong(column);
+            return resultSet.wasNull() ? null : value;
+        }
+    },
+
+    DOUBLE(Types.DOUBLE) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            double value = resultSet.getDouble(column);
+            return resultSet.wasNull() ? null : value;
+        }
+    },
+
+    FLOAT(Types.REAL) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            float value = resultSet.getFloat(column);
+            return resultSet.wasNull() ? null : value;
+        }
+    },
+
+    SHORT(Types.SMALLINT) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            short value = resultSet.getShort(column);
+            return resultSet.wasNull() ? null : value;
+        }
+    },
+
+    BYTE(Types.TINYINT) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            byte value = resultSet.getByte(column);
+            return resultSet.wasNull() ? null : value;
+        }
+    },
+
+    // read loosely: drivers report BOOLEAN columns as Boolean, numbers or text
+    BOOLEAN(Types.BOOLEAN) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            Object value = resultSet.getObject(column);
+            if (value == null || value instanceof Boolean) return value;
+            if (value instanceof Number number) return number.intValue() != 0;
+            return Boolean.parseBoolean(value.toString()) || "1".equals(value.toString());
+        }
+    },
+
+    CHAR(Types.CHAR) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            String value = resultSet.getString(column);
+            return value == null || value.isEmpty() ? null : value.charAt(0);
+        }
+    },
+
+    BIG_DECIMAL(Types.DECIMAL) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            return resultSet.getBigDecimal(column);
+        }
+    },
+
+    BIG_INTEGER(Types.NUMERIC) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            BigDecimal value = resultSet.getBigDecimal(column);
+            return value == null ? null : value.toBigInteger();
+        }
+    },
+
+    DATE(Types.DATE) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            return resultSet.getDate(column);
+        }
+    },
+
+    TIME(Types.TIME) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            return resultSet.getTime(column);
+        }
+    },
+
+    TIMESTAMP(Types.TIMESTAMP) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            return resultSet.getTimestamp(column);
+        }
+    },
+
+    BYTES(Types.VARBINARY) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            return resultSet.getBytes(column);
+        }
+    },
+
+    BLOB(Types.BLOB) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            // sqlite-jdbc implements neither getBlob nor setBlob, the bytes themselves work on every driver
+            byte[] bytes = resultSet.getBytes(column);
+            return bytes == null ? null : new SerialBlob(bytes);
+        }
+    },
+
+    CLOB(Types.CLOB) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            String text = resultSet.getString(column);
+            return text == null ? null : new SerialClob(text.toCharArray());
+        }
+    },
+
+    OBJECT(Types.VARCHAR) {
+        @Override
+        public Object read(ResultSet resultSet, int column) throws SQLException {
+            return resultSet.getObject(column);
+        }
+    };
+
+    private final int sqlType;
+
+    JdbcType(int sqlType) {
+        this.sqlType = sqlType;
+    }
+
+    public int sqlType() {
+        return sqlType;
+    }
+
+    public abstract Object read(ResultSet resultSet, int column) throws SQLException;
+
+    public void hydrate(ResultSet resultSet, int column, FieldAccessor accessor, Object entity) throws SQLException {
+        accessor.set(entity, read(resultSet, column));
+    }
+
+    public static JdbcType of(Class<?> type) {
+        if (type == String.class) return STRING;
+        if (type == int.class) return PRIMITIVE_INT;
+        if (type == Integer.class) return INT;
+        if (type == long.class) return PRIMITIVE_LONG;
+        if (type == Long.class) return LONG;
+        if (type == double.class || type == Double.class) return DOUBLE;
+        if (type == float.class || type == Float.class) return FLOAT;
+        if (type == short.class || type == Short.class) return SHORT;
+        if (type == byte.class || type == Byte.class) return BYTE;
+        if (type == boolean.class || type == Boolean.class) return BOOLEAN;
+        if (type == char.class || type == Character.class) return CHAR;
+
+        if (type == BigDecimal.class) return BIG_DECIMAL;
+        if (type == BigInteger.class) return BIG_INTEGER;
+
+        if (type == Date.class) return DATE;
+        if (type == Time.class) return TIME;
+        if (type == Timestamp.class) return TIMESTAMP;
+        if (type == byte[].class) return BYTES;
+        if (type == Blob.class) return BLOB;
+        if (type == Clob.class) return CLOB;
+
+        return OBJECT;
+    }
+}
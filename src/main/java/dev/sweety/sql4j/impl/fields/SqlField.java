@@ -1,10 +1,10 @@
 package dev.sweety.sql4j.impl.fields;
 
 import dev.sweety.sql4j.api.SqlUtils;
-import dev.sweety.sql4j.api.adapter.Adapter;
-import dev.sweety.sql4j.api.adapter.FieldAdapter;
 import dev.sweety.sql4j.api.connection.SQLConnection;
-import dev.sweety.sql4j.api.field.DataField;
+import dev.sweety.sql4j.api.connection.SqlNull;
+import dev.sweety.sql4j.api.field.Column;
+import dev.sweety.sql4j.api.field.FetchMode;
 import dev.sweety.sql4j.api.field.ForeignKey;
 import dev.sweety.sql4j.api.field.IField;
 import dev.sweety.sql4j.api.field.PrimaryKey;
@@ -12,49 +12,35 @@ import dev.sweety.sql4j.impl.table.Table;
 import dev.sweety.sql4j.impl.table.TableManager;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.util.List;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
-import static dev.sweety.sql4j.api.SqlUtils.gson;
-
-public record SqlField(String name, Field field, SQLConnection connection, PrimaryKey primaryKey, ForeignKey foreignKey,
-                       String query, String defaultValue) implements IField {
+public record SqlField(String name, Column column, FieldAccessor accessor, FieldCodec codec, JdbcType jdbcType,
+                       SQLConnection connection, PrimaryKey primaryKey, ForeignKey foreignKey, String query,
+                       String defaultValue) implements IField {
 
     public static SqlField sqlField(Field field, SQLConnection connection) {
+        return sqlField(Column.of(field), connection, FieldAccessor.of(field));
+    }
 
-        StringBuilder query = new StringBuilder();
-        DataField info = field.getAnnotation(DataField.class);
-        String name = info == null || info.name().isEmpty() ? field.getName() : info.name();
-
-        query.append(name).append(" ").append(SqlUtils.getType(field));
-
-        String defaultValue = null;
-
-        if (info != null) {
-            if (info.notNull()) query.append(" NOT NULL");
-            if (info.unique()) query.append(" UNIQUE");
-            if (!info.value().isEmpty() && !info.value().isBlank()) defaultValue = info.value();
-        }
-
-        PrimaryKey primaryKey = field.getAnnotation(PrimaryKey.class);
-        if (primaryKey != null) {
-            query.append(" PRIMARY KEY");
-            if (primaryKey.autoIncrement()) query.append(" AUTOINCREMENT");
-        }
+    public static SqlField sqlField(Column column, SQLConnection connection, FieldAccessor accessor) {
 
         boolean hasForeignKey = false;
         String table = "", tableId = "";
+        FetchMode fetch = FetchMode.BATCH;
 
-        ForeignKey foreignKey = field.getAnnotation(ForeignKey.class);
+        ForeignKey foreignKey = column.foreignKey();
         if (foreignKey != null) {
             hasForeignKey = true;
             table = foreignKey.table();
             tableId = foreignKey.tableId();
+            fetch = foreignKey.fetch();
         }
 
-        Class<?> type = field.getType();
+        Class<?> type = column.type();
         Optional<? extends Table<?>> opt = TableManager.get(type);
 
         if (opt.isPresent()) {
@@ -64,24 +50,68 @@ public record SqlField(String name, Field field, SQLConnection connection, Prima
             if (tableId.isBlank()) tableId = t.primaryKey().name();
         }
 
-        if (hasForeignKey) {
-            query.append(", FOREIGN KEY (").append(name).append(") REFERENCES ")
-                    .append(table)
-                    .append("(")
-                    .append(tableId)
-                    .append(")");
+        ForeignKey newForeignKey = SqlUtils.getForeignKey(table, tableId, fetch, hasForeignKey);
+
+        FieldCodec codec = FieldCodec.of(column, hasForeignKey ? tableId : null);
+
+        // codec-backed columns hold text, foreign keys whatever the referenced key was stored as
+        JdbcType jdbcType = codec == FieldCodec.NativeCodec.INSTANCE ? JdbcType.of(type)
+                : hasForeignKey ? JdbcType.OBJECT : JdbcType.STRING;
+
+        return new SqlField(column.name(), column, accessor, codec, jdbcType, connection, column.primaryKey(), newForeignKey,
+                column.definition(), column.defaultValue());
+    }
+
+    public Table<?> foreignTable() {
+        return codec instanceof FieldCodec.ForeignKeyCodec foreign ? foreign.table() : null;
+    }
+
+    public String foreignColumn() {
+        return codec instanceof FieldCodec.ForeignKeyCodec foreign ? foreign.column() : null;
+    }
+
+    public Object read(ResultSet resultSet, int column) throws SQLException {
+        return jdbcType.read(resultSet, column);
+    }
+
+    public void read(ResultSet resultSet, int column, Object entity) throws Exception {
+        if (codec == FieldCodec.NativeCodec.INSTANCE) {
+            jdbcType.hydrate(resultSet, column, accessor, entity);
+            return;
         }
 
-        ForeignKey newForeignKey = SqlUtils.getForeignKey(table, tableId, hasForeignKey);
+        Object value = jdbcType.read(resultSet, column);
+        accessor.set(entity, value == null ? null : codec.deserialize(value));
+    }
+
+    // sets a value already taken from the row with read(ResultSet, int)
+    public void hydrate(Object entity, Object value) throws Exception {
+        accessor.set(entity, decode(value));
+    }
 
-        return new SqlField(name, field, connection, primaryKey, newForeignKey, query.toString(), defaultValue);
+    public Object decode(Object value) throws Exception {
+        return value == null || codec == FieldCodec.NativeCodec.INSTANCE ? value : codec.deserialize(value);
+    }
+
+    // nulls keep the column type so drivers can bind them with setNull
+    public Object parameter(Object value) {
+        return value == null ? new SqlNull(jdbcType.sqlType()) : value;
+    }
+
+    // the write-side twin of read(ResultSet, int, Object): primitive int and long columns go from the field
+    // to the statement without the boxed get()
+    public void bind(PreparedStatement statement, int index, Object entity) throws SQLException {
+        switch (jdbcType) {
+            case PRIMITIVE_INT -> statement.setInt(index, accessor.getInt(entity));
+            case PRIMITIVE_LONG -> statement.setLong(index, accessor.getLong(entity));
+            default -> connection.setParameter(statement, index, parameter(get(entity)));
+        }
     }
 
     @Override
-    public <T> String get(T entity) {
-        field.setAccessible(true);
+    public <T> Object get(T entity) {
         try {
-            return serialize(field.get(entity));
+            return serialize(accessor.get(entity));
         } catch (Exception e) {
             e.printStackTrace(System.err);
         }
@@ -90,72 +120,29 @@ public record SqlField(String name, Field field, SQLConnection connection, Prima
 
     @Override
     public <T> void set(T entity, Object value) {
-        field.setAccessible(true);
         try {
-            field.set(entity, deserialize(value));
+            accessor.set(entity, deserialize(value));
         } catch (Exception e) {
             e.printStackTrace(System.err);
         }
     }
 
     @Override
-    public <T> String serialize(T value) throws Exception {
-        if (value == null) return "null";
-
-        FieldAdapter fieldAdapter = field.getAnnotation(FieldAdapter.class);
-        if (fieldAdapter != null) {
-            // noinspection unchecked
-            Adapter<T> adapter = (Adapter<T>) fieldAdapter.adapter().getDeclaredConstructor().newInstance();
-            return adapter.serialize(value);
-        }
-
-        if (foreignKey != null) {
-            Optional<? extends Table<?>> table = TableManager.get(field.getType());
-            if (table.isPresent()) return table.get().primaryKey().get(value);
-        }
-
-        if (isSupported()) return String.valueOf(value);
-        if (value instanceof Enum<?> e) return e.name();
-
-        return gson.toJson(value);
+    public <T> Object serialize(T value) throws Exception {
+        if (value == null) return null;
+        return codec.serialize(value);
     }
 
     @Override
     public <T> Object deserialize(Object object) throws Exception {
         if (object == null) return null;
-
-        String str = object.toString();
-
-        FieldAdapter fieldAdapter = field.getAnnotation(FieldAdapter.class);
-        if (fieldAdapter != null) {
-            // noinspection unchecked
-            Adapter<T> adapter = (Adapter<T>) fieldAdapter.adapter().getDeclaredConstructor().newInstance();
-            return adapter.deserialize(str);
-        }
-
-        if (foreignKey != null) {
-            Optional<? extends Table<?>> table = TableManager.get(field.getType());
-            if (table.isPresent()) {
-                List<?> objects = table.get().selectWhere(foreignKey.tableId() + " = ?", str);
-                return objects.isEmpty() ? null : objects.getFirst();
-            }
-        }
-
-        if (isSupported()) return object;
-
-        if (field.getType().isEnum()) {
-            // noinspection unchecked
-            return Enum.valueOf(((Class<Enum>) field.getType()), str);
-        }
-
-        return gson.fromJson(str, field.getType());
+        return codec.deserialize(object);
     }
 
     @Override
-    public <T> CompletableFuture<String> getAsync(T entity) {
-        field.setAccessible(true);
+    public <T> CompletableFuture<Object> getAsync(T entity) {
         try {
-            return serializeAsync(field.get(entity));
+            return serializeAsync(accessor.get(entity));
         } catch (Exception e) {
             e.printStackTrace(System.err);
         }
@@ -164,11 +151,10 @@ public record SqlField(String name, Field field, SQLConnection connection, Prima
 
     @Override
     public <T> CompletableFuture<Void> setAsync(T entity, Object value) {
-        field.setAccessible(true);
         try {
             return deserializeAsync(value).thenAccept(a -> {
                 try {
-                    field.set(entity, a);
+                    accessor.set(entity, a);
                 } catch (Exception e) {
                     e.printStackTrace(System.err);
                 }
@@ -180,75 +166,14 @@ public record SqlField(String name, Field field, SQLConnection connection, Prima
     }
 
     @Override
-    public <T> CompletableFuture<String> serializeAsync(T value) {
-        if (value == null) return CompletableFuture.completedFuture("null");
-
-        FieldAdapter fieldAdapter = field.getAnnotation(FieldAdapter.class);
-        if (fieldAdapter != null) {
-
-            return CompletableFuture.supplyAsync(() -> {
-                try {
-                    // noinspection unchecked
-                    Adapter<T> adapter = (Adapter<T>) fieldAdapter.adapter().getDeclaredConstructor().newInstance();
-                    return adapter.serialize(value);
-                } catch (InstantiationException | IllegalAccessException | InvocationTargetException |
-                         NoSuchMethodException e) {
-                    return "null|" + e.getMessage();
-                }
-            }, connection.executor());
-        }
-
-        if (foreignKey != null) {
-            Optional<? extends Table<?>> table = TableManager.get(field.getType());
-            if (table.isPresent()) return table.get().primaryKey().getAsync(value);
-        }
-
-        return CompletableFuture.supplyAsync(() -> {
-            if (isSupported()) return String.valueOf(value);
-            if (value instanceof Enum<?> e) return e.name();
-
-            return gson.toJson(value);
-        }, connection.executor());
+    public <T> CompletableFuture<Object> serializeAsync(T value) {
+        if (value == null) return CompletableFuture.completedFuture(null);
+        return codec.serializeAsync(value, connection.executor());
     }
 
     @Override
     public <T> CompletableFuture<Object> deserializeAsync(Object object) throws Exception {
         if (object == null) return CompletableFuture.completedFuture(null);
-
-        String str = object.toString();
-
-        FieldAdapter fieldAdapter = field.getAnnotation(FieldAdapter.class);
-        if (fieldAdapter != null) {
-            return CompletableFuture.supplyAsync(() -> {
-                try {
-                    // noinspection unchecked
-                    Adapter<T> adapter = (Adapter<T>) fieldAdapter.adapter().getDeclaredConstructor().newInstance();
-                    return adapter.deserialize(str);
-                } catch (InstantiationException | IllegalAccessException | InvocationTargetException |
-                         NoSuchMethodException e) {
-                    e.printStackTrace(System.err);
-                }
-
-                return null;
-
-            }, connection.executor());
-        }
-
-        if (foreignKey != null) {
-            Optional<? extends Table<?>> table = TableManager.get(field.getType());
-            if (table.isPresent())
-                return table.get().selectWhereAsync(foreignKey.tableId() + " = ?", str).thenApply(List::getFirst);
-        }
-
-        return CompletableFuture.supplyAsync(() -> {
-            if (isSupported()) return object;
-
-            if (field.getType().isEnum()) {
-                // noinspection unchecked
-                return Enum.valueOf(((Class<Enum>) field.getType()), str);
-            }
-
-            return gson.fromJson(str, field.getType());
-        }, connection.executor());
+        return codec.deserializeAsync(object, connection.executor());
     }
 }
@@ -0,0 +1,76 @@
+package dev.sweety.sql4j.impl.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// lock-free log-linear histogram of nanosecond latencies: four buckets per power of two,
+// so a percentile is reported within 25% of the true value
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 256;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(index(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    public LatencySnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) recorded += counts[i] = buckets.get(i);
+
+        long max = this.max.get();
+        return new LatencySnapshot(recorded, total.sum(), max,
+                percentile(counts, recorded, max, 0.50), percentile(counts, recorded, max, 0.95),
+                percentile(counts, recorded, max, 0.99));
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    // the upper bound of the bucket holding the requested rank, never above the largest value recorded
+    private static long percentile(long[] counts, long recorded, long max, double percentile) {
+        if (recorded == 0) return 0;
+
+        long rank = (long) Math.ceil(percentile * recorded);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upper(i), max);
+        }
+        return max;
+    }
+
+    static int index(long nanos) {
+        if (nanos < 4) return (int) nanos;
+
+        int msb = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (msb - 2)) & 3;
+        return (msb - 1) * 4 + sub;
+    }
+
+    static long upper(int index) {
+        if (index < 4) return index;
+
+        int msb = index / 4 + 1;
+        int sub = index % 4;
+        return ((5L + sub) << (msb - 2)) - 1;
+    }
+}
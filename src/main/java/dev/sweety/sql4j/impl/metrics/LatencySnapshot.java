@@ -0,0 +1,26 @@
+package dev.sweety.sql4j.impl.metrics;
+
+import java.time.Duration;
+
+public record LatencySnapshot(long count, long totalNanos, long maxNanos, long p50Nanos, long p95Nanos, long p99Nanos) {
+
+    public Duration mean() {
+        return Duration.ofNanos(count == 0 ? 0 : totalNanos / count);
+    }
+
+    public Duration max() {
+        return Duration.ofNanos(maxNanos);
+    }
+
+    public Duration p50() {
+        return Duration.ofNanos(p50Nanos);
+    }
+
+    public Duration p95() {
+        return Duration.ofNanos(p95Nanos);
+    }
+
+    public Duration p99() {
+        return Duration.ofNanos(p99Nanos);
+    }
+}
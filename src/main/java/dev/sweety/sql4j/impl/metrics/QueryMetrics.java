@@ -0,0 +1,84 @@
+package dev.sweety.sql4j.impl.metrics;
+
+import dev.sweety.sql4j.api.connection.QueryEvent;
+import dev.sweety.sql4j.api.connection.QueryListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// latency histograms per table and operation plus one for connection waits, e.g.
+// connection.instrumentation().add(metrics) then metrics.stats() or metrics.connectionWait()
+public final class QueryMetrics implements QueryListener {
+
+    private record Key(String table, QueryEvent.Operation operation) {
+    }
+
+    private static final class Entry {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+    }
+
+    // the key of each sql string is worked out once; values inlined into the sql make every string new,
+    // so past the cap keys are worked out each time instead of growing the map
+    static final int MAX_PARSED = 256;
+
+    private final Map<String, Key> parsed = new ConcurrentHashMap<>();
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionWait = new LatencyHistogram();
+
+    @Override
+    public void executed(QueryEvent event) {
+        Key key = key(event);
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+
+        entry.latency.record(event.nanos());
+        if (event.failed()) entry.errors.increment();
+        if (event.rows() > 0) entry.rows.add(event.rows());
+    }
+
+    private Key key(QueryEvent event) {
+        Key key = parsed.get(event.sql());
+        if (key != null) return key;
+
+        key = new Key(event.table(), event.operation());
+        if (parsed.size() < MAX_PARSED) parsed.putIfAbsent(event.sql(), key);
+        return key;
+    }
+
+    @Override
+    public void acquired(long waitNanos) {
+        connectionWait.record(waitNanos);
+    }
+
+    public List<QueryStats> stats() {
+        List<QueryStats> stats = new ArrayList<>(entries.size());
+        entries.forEach((key, entry) -> stats.add(stats(key, entry)));
+        stats.sort(Comparator.comparing((QueryStats s) -> String.valueOf(s.table())).thenComparing(QueryStats::operation));
+        return stats;
+    }
+
+    public Optional<QueryStats> stats(String table, QueryEvent.Operation operation) {
+        Key key = new Key(table, operation);
+        return Optional.ofNullable(entries.get(key)).map(entry -> stats(key, entry));
+    }
+
+    public LatencySnapshot connectionWait() {
+        return connectionWait.snapshot();
+    }
+
+    public void reset() {
+        entries.clear();
+        connectionWait.reset();
+    }
+
+    private static QueryStats stats(Key key, Entry entry) {
+        LatencySnapshot latency = entry.latency.snapshot();
+        return new QueryStats(key.table(), key.operation(), latency.count(), entry.errors.sum(), entry.rows.sum(), latency);
+    }
+}
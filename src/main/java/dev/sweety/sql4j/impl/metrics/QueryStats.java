@@ -0,0 +1,8 @@
+package dev.sweety.sql4j.impl.metrics;
+
+import dev.sweety.sql4j.api.connection.QueryEvent;
+
+// rows adds up what selects read and writes affected, statements whose driver reported no count are left out
+public record QueryStats(String table, QueryEvent.Operation operation, long statements, long errors, long rows,
+                         LatencySnapshot latency) {
+}
@@ -0,0 +1,111 @@
+package dev.sweety.sql4j.impl.table;
+
+import dev.sweety.sql4j.api.SqlUtils;
+import dev.sweety.sql4j.api.jfr.ForeignKeyEvent;
+import dev.sweety.sql4j.impl.fields.SqlField;
+
+import java.util.*;
+
+// one hydration pass: foreign keys found while reading rows are collected here and resolved
+// table by table with chunked IN queries, reusing entities already loaded in this pass;
+// the entities it read reach the entity cache only once every foreign key of the pass is set
+final class Hydration {
+
+    static final int IN_CHUNK = 500;
+
+    private record Deferred(Object entity, SqlField field, Table<?> target, String column, Object key) {
+    }
+
+    private final Map<String, Object> loaded = new HashMap<>();
+    private List<Deferred> deferred = new ArrayList<>();
+    private final List<Runnable> published = new ArrayList<>();
+
+    void defer(Object entity, SqlField field, Table<?> target, Object key) {
+        deferred.add(new Deferred(entity, field, target, field.foreignColumn(), key));
+    }
+
+    <T> void publish(Table<T> table, T entity) {
+        afterResolve(() -> table.cache(entity));
+    }
+
+    // runs at the end of resolve(), once every foreign key of the pass is set
+    void afterResolve(Runnable action) {
+        published.add(action);
+    }
+
+    <T> T intern(Table<T> table, T entity) {
+        if (table.primaryKey() == null) return entity;
+
+        String key = key(table, table.primaryKey().name(), table.primaryKey().get(entity));
+        // noinspection unchecked
+        T existing = (T) loaded.putIfAbsent(key, entity);
+        return existing != null ? existing : entity;
+    }
+
+    void resolve() {
+        while (!deferred.isEmpty()) {
+            List<Deferred> batch = deferred;
+            deferred = new ArrayList<>();
+
+            Map<String, Map<String, Object>> missing = new LinkedHashMap<>();
+            Map<String, Deferred> groups = new HashMap<>();
+
+            for (Deferred pending : batch) {
+                String key = key(pending.target(), pending.column(), pending.key());
+                if (loaded.containsKey(key)) continue;
+
+                Object cached = cached(pending.target(), pending.column(), pending.key());
+                if (cached != null) {
+                    loaded.put(key, cached);
+                    continue;
+                }
+
+                String group = pending.target().name() + '\u0000' + pending.column();
+                groups.putIfAbsent(group, pending);
+                missing.computeIfAbsent(group, g -> new LinkedHashMap<>()).putIfAbsent(key, pending.key());
+            }
+
+            for (Map.Entry<String, Map<String, Object>> entry : missing.entrySet()) {
+                Deferred sample = groups.get(entry.getKey());
+                load(sample.target(), sample.column(), new ArrayList<>(entry.getValue().values()));
+
+                // dangling keys resolve to null and are not queried again in this pass
+                for (String key : entry.getValue().keySet()) loaded.putIfAbsent(key, null);
+            }
+
+            for (Deferred pending : batch) {
+                Object value = loaded.get(key(pending.target(), pending.column(), pending.key()));
+                pending.field().accessor().set(pending.entity(), value);
+            }
+        }
+
+        for (Runnable publish : published) publish.run();
+        published.clear();
+    }
+
+    private <T> void load(Table<T> table, String column, List<Object> keys) {
+        SqlField keyField = table.field(column);
+        ForeignKeyEvent event = ForeignKeyEvent.start();
+        int resolved = 0;
+
+        for (int from = 0; from < keys.size(); from += IN_CHUNK) {
+            List<Object> chunk = keys.subList(from, Math.min(keys.size(), from + IN_CHUNK));
+            String filter = column + " IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+
+            for (T entity : table.load(table.plan().selectWhere(filter), chunk.toArray(), this)) {
+                if (keyField != null) loaded.putIfAbsent(key(table, column, keyField.get(entity)), entity);
+                resolved++;
+            }
+        }
+        event.finish(table.name(), column, keys.size(), resolved);
+    }
+
+    private static Object cached(Table<?> table, String column, Object key) {
+        SqlField primaryKey = table.primaryKey();
+        return primaryKey != null && primaryKey.name().equalsIgnoreCase(column) ? table.cached(key) : null;
+    }
+
+    private static String key(Table<?> table, String column, Object value) {
+        return table.name() + '\u0000' + column + '\u0000' + value;
+    }
+}
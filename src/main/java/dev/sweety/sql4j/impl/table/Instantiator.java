@@ -0,0 +1,128 @@
+package dev.sweety.sql4j.impl.table;
+
+import dev.sweety.sql4j.api.table.EntityMapper;
+import dev.sweety.sql4j.api.table.PersistenceCreator;
+import dev.sweety.sql4j.impl.fields.FieldAccessor;
+import dev.sweety.sql4j.impl.fields.SqlField;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.List;
+
+// how a table makes its entities, resolved once when the table is created: either an empty instance whose fields
+// are then set, or one call to a record's canonical constructor or a @PersistenceCreator constructor with the row
+public final class Instantiator<T> {
+
+    private final EntityMapper<T> mapper;
+    private final MethodHandle constructor;
+    // constructor parameter -> index in sqlFields, -1 for parameters no column feeds
+    private final int[] columns;
+    private final Class<?>[] parameters;
+
+    private Instantiator(EntityMapper<T> mapper, MethodHandle constructor, int[] columns, Class<?>[] parameters) {
+        this.mapper = mapper;
+        this.constructor = constructor;
+        this.columns = columns;
+        this.parameters = parameters;
+    }
+
+    static <T> Instantiator<T> of(Class<T> type, List<SqlField> fields, EntityMapper<T> mapper) {
+        // mappers are only generated for classes built through a no-argument constructor
+        if (mapper != null) return new Instantiator<>(mapper, null, null, null);
+
+        Constructor<?> creator = null;
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if (!constructor.isAnnotationPresent(PersistenceCreator.class)) continue;
+            if (creator != null) throw new IllegalArgumentException(type.getName() + " has more than one @PersistenceCreator constructor");
+            creator = constructor;
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+
+            if (creator == null && type.isRecord()) {
+                RecordComponent[] components = type.getRecordComponents();
+                creator = type.getDeclaredConstructor(Arrays.stream(components).map(RecordComponent::getType).toArray(Class[]::new));
+                return creator(lookup, creator, Arrays.stream(components).map(RecordComponent::getName).toArray(String[]::new), fields);
+            }
+            if (creator != null) return creator(lookup, creator, names(creator, fields), fields);
+
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            return new Instantiator<>(null, constructor, null, null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + " needs a no-argument constructor, a @PersistenceCreator constructor or to be a record", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("cannot access the constructors of " + type.getName(), e);
+        }
+    }
+
+    private static <T> Instantiator<T> creator(MethodHandles.Lookup lookup, Constructor<?> creator, String[] names,
+                                               List<SqlField> fields) throws IllegalAccessException {
+        int[] columns = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            columns[i] = -1;
+            for (int column = 0; column < fields.size(); column++) {
+                if (fields.get(column).column().field().equals(names[i])) columns[i] = column;
+            }
+        }
+
+        MethodHandle constructor = lookup.unreflectConstructor(creator)
+                .asSpreader(Object[].class, names.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        return new Instantiator<>(null, constructor, columns, creator.getParameterTypes());
+    }
+
+    // without -parameters the names are arg0, arg1, ...; a constructor taking every field in order still matches
+    private static String[] names(Constructor<?> creator, List<SqlField> fields) {
+        Parameter[] parameters = creator.getParameters();
+        if (parameters.length > 0 && parameters[0].isNamePresent())
+            return Arrays.stream(parameters).map(Parameter::getName).toArray(String[]::new);
+
+        if (parameters.length != fields.size())
+            throw new IllegalArgumentException("the @PersistenceCreator constructor of " + creator.getDeclaringClass().getName()
+                    + " must take every mapped field in declaration order, or be compiled with -parameters");
+        return fields.stream().map(field -> field.column().field()).toArray(String[]::new);
+    }
+
+    // values are handed to the constructor instead of being written into an empty instance
+    public boolean creator() {
+        return columns != null;
+    }
+
+    T create() {
+        if (mapper != null) return mapper.create();
+        try {
+            // noinspection unchecked
+            return (T) (Object) constructor.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // values in sqlFields order, already decoded
+    T create(Object[] values) {
+        Object[] arguments = new Object[columns.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = FieldAccessor.coerce(parameters[i], columns[i] < 0 ? null : values[columns[i]]);
+        }
+
+        try {
+            // noinspection unchecked
+            return (T) (Object) constructor.invokeExact(arguments);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable throwable) {
+        if (throwable instanceof RuntimeException e) return e;
+        if (throwable instanceof Error e) throw e;
+        return new IllegalStateException(throwable);
+    }
+}
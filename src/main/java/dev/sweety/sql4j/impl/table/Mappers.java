@@ -0,0 +1,33 @@
+package dev.sweety.sql4j.impl.table;
+
+import dev.sweety.sql4j.api.SqlUtils;
+import dev.sweety.sql4j.api.table.EntityMapper;
+
+// generated mappers are looked up by name next to their entity, once per class; without one the table reflects
+final class Mappers {
+
+    private static final ClassValue<EntityMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected EntityMapper<?> computeValue(Class<?> type) {
+            try {
+                Class<?> mapper = Class.forName(type.getName() + EntityMapper.SUFFIX, true, type.getClassLoader());
+                return (EntityMapper<?>) mapper.getDeclaredConstructor().newInstance();
+            } catch (ClassNotFoundException e) {
+                return null;
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                SqlUtils.logger.log(System.Logger.Level.ERROR, "mapper: cannot load the generated mapper of " + type.getName());
+                e.printStackTrace(System.err);
+                return null;
+            }
+        }
+    };
+
+    private Mappers() {
+    }
+
+    static <T> EntityMapper<T> of(Class<T> type) {
+        // noinspection unchecked
+        EntityMapper<T> mapper = (EntityMapper<T>) MAPPERS.get(type);
+        return mapper != null && mapper.type() == type ? mapper : null;
+    }
+}
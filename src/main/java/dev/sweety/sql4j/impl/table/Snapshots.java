@@ -0,0 +1,64 @@
+package dev.sweety.sql4j.impl.table;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+// column values per entity instance as last read from or written to the database, in StatementPlan#updateParams
+// layout. Entities are held weakly and by identity, so tracking never keeps one alive or depends on its equals
+public final class Snapshots {
+
+    private static final class Key extends WeakReference<Object> {
+        private final int hash;
+
+        private Key(Object entity, ReferenceQueue<Object> queue) {
+            super(entity, queue);
+            this.hash = System.identityHashCode(entity);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+
+            Object entity = get();
+            return entity != null && entity == other.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final ConcurrentHashMap<Key, Object[]> values = new ConcurrentHashMap<>();
+
+    Object[] get(Object entity) {
+        expunge();
+        return values.get(new Key(entity, null));
+    }
+
+    void put(Object entity, Object[] snapshot) {
+        expunge();
+        values.put(new Key(entity, queue), snapshot);
+    }
+
+    void remove(Object entity) {
+        values.remove(new Key(entity, null));
+    }
+
+    void clear() {
+        values.clear();
+    }
+
+    public int size() {
+        expunge();
+        return values.size();
+    }
+
+    private void expunge() {
+        for (Reference<?> reference; (reference = queue.poll()) != null; ) values.remove(reference);
+    }
+}
@@ -0,0 +1,191 @@
+package dev.sweety.sql4j.impl.table;
+
+import dev.sweety.sql4j.api.connection.Dialect;
+import dev.sweety.sql4j.api.field.FetchMode;
+import dev.sweety.sql4j.impl.fields.SqlField;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+public record StatementPlan(String columns, String selectAll, String selectWherePrefix, String selectWhereSuffix,
+                            String insert, String update, String delete, String selectById, String upsert,
+                            List<SqlField> insertFields, List<SqlField> updateFields, List<SqlField> upsertFields, List<Join> joins,
+                            Map<String, String> shapes) {
+
+    static final int MAX_SHAPES = 256;
+
+    // bit i set means updateFields[i] is written; every column is the full update statement
+    static final long ALL_COLUMNS = -1L;
+
+    public record Join(SqlField field, Table<?> table, String alias) {
+    }
+
+    // entities built through a constructor are never joined, on either side: their references are resolved in bulk
+    // before the constructor runs, so JOIN falls back to BATCH for them
+    public static StatementPlan of(String table, List<SqlField> fields, SqlField primaryKey, Dialect dialect, boolean joinable) {
+        List<Join> joins = new ArrayList<>();
+        for (SqlField field : fields) {
+            if (!joinable || field.foreignKey() == null || field.foreignKey().fetch() != FetchMode.JOIN) continue;
+
+            Table<?> target = field.foreignTable();
+            if (target != null && !target.instantiator().creator()) joins.add(new Join(field, target, "t" + (joins.size() + 1)));
+        }
+
+        String prefix = joins.isEmpty() ? "" : "t0.";
+        StringJoiner columns = new StringJoiner(", ");
+        for (SqlField field : fields) columns.add(prefix + field.name());
+
+        StringJoiner from = new StringJoiner(" ");
+        for (Join join : joins) {
+            for (SqlField field : join.table().sqlFields()) columns.add(join.alias() + "." + field.name());
+            from.add("LEFT JOIN " + join.table().name() + " " + join.alias() + " ON t0." + join.field().name()
+                    + " = " + join.alias() + "." + join.field().foreignColumn());
+        }
+
+        List<SqlField> insertFields = fields.stream().filter(field -> !field.autoIncrement()).toList();
+        List<SqlField> updateFields = fields.stream().filter(field -> !field.hasPrimaryKey()).toList();
+
+        StringJoiner insertColumns = new StringJoiner(", ", "INSERT INTO " + table + "(", ")");
+        StringJoiner insertValues = new StringJoiner(", ", " VALUES (", ");");
+        for (SqlField field : insertFields) {
+            insertColumns.add(field.name());
+            insertValues.add("?");
+        }
+
+        String update = null, delete = null, upsert = null;
+        List<SqlField> upsertFields = List.of();
+        if (primaryKey != null) {
+            // the key is always written here, a generated one included, so the conflict can be detected
+            upsertFields = List.copyOf(fields);
+            upsert = dialect.upsert(table, fields.stream().map(SqlField::name).toList(), primaryKey.name(),
+                    updateFields.stream().map(SqlField::name).toList());
+
+            StringJoiner set = new StringJoiner(", ", "UPDATE " + table + " SET ", " WHERE " + primaryKey.name() + " = ?;");
+            for (SqlField field : updateFields) set.add(field.name() + " = ?");
+            update = set.toString();
+            delete = "DELETE FROM " + table + " WHERE " + primaryKey.name() + " = ?;";
+        }
+
+        String select = "SELECT " + columns + " FROM ";
+        String selectAll, selectWherePrefix, selectWhereSuffix;
+        if (joins.isEmpty()) {
+            selectAll = select + table + ";";
+            selectWherePrefix = select + table + " WHERE ";
+            selectWhereSuffix = ";";
+        } else {
+            // the filter is written against the bare table, so it is applied before joining
+            selectAll = select + table + " t0 " + from + ";";
+            selectWherePrefix = select + "(SELECT * FROM " + table + " WHERE ";
+            selectWhereSuffix = ") t0 " + from + ";";
+        }
+
+        String selectById = primaryKey == null ? null : selectWherePrefix + primaryKey.name() + " = ?" + selectWhereSuffix;
+
+        return new StatementPlan(columns.toString(), selectAll, selectWherePrefix, selectWhereSuffix,
+                insertColumns + insertValues.toString(), update, delete, selectById, upsert, insertFields, updateFields, upsertFields, List.copyOf(joins),
+                new ConcurrentHashMap<>());
+    }
+
+    public String selectWhere(String filter) {
+        return selectWherePrefix + filter + selectWhereSuffix;
+    }
+
+    public String column(SqlField field) {
+        return joins.isEmpty() ? field.name() : "t0." + field.name();
+    }
+
+    // built statements are kept per shape (filter, ordering, paging) so repeated queries reuse the same text
+    public String select(String filter, String orderBy, boolean limit, boolean offset) {
+        String shape = filter + '\u0000' + orderBy + '\u0000' + limit + '\u0000' + offset;
+        String sql = shapes.get(shape);
+        if (sql != null) return sql;
+
+        String base = filter == null ? selectAll : selectWhere(filter);
+        StringBuilder select = new StringBuilder(base.length() + 64).append(base, 0, base.length() - 1);
+        if (orderBy != null) select.append(" ORDER BY ").append(orderBy);
+        if (limit || offset) select.append(" LIMIT ?");
+        if (offset) select.append(" OFFSET ?");
+        sql = select.append(';').toString();
+
+        if (shapes.size() < MAX_SHAPES) shapes.putIfAbsent(shape, sql);
+        return sql;
+    }
+
+    // partial updates are cached per changed-column mask next to the query shapes
+    public String update(long columns) {
+        if (columns == ALL_COLUMNS) return update;
+
+        String shape = "\u0001" + columns;
+        String sql = shapes.get(shape);
+        if (sql != null) return sql;
+
+        // same head and WHERE clause as the full statement, "UPDATE t SET " ... " WHERE pk = ?;"
+        String head = update.substring(0, update.indexOf(" SET ") + 5), where = update.substring(update.lastIndexOf(" WHERE "));
+        StringJoiner set = new StringJoiner(", ", head, where);
+        for (int i = 0; i < updateFields.size(); i++) {
+            if ((columns & 1L << i) != 0) set.add(updateFields.get(i).name() + " = ?");
+        }
+        sql = set.toString();
+
+        if (shapes.size() < MAX_SHAPES) shapes.putIfAbsent(shape, sql);
+        return sql;
+    }
+
+    public Object[] updateParams(Object[] params, long columns) {
+        if (columns == ALL_COLUMNS) return params;
+
+        Object[] changed = new Object[Long.bitCount(columns) + 1];
+        int index = 0;
+        for (int i = 0; i < params.length - 1; i++) {
+            if ((columns & 1L << i) != 0) changed[index++] = params[i];
+        }
+        changed[index] = params[params.length - 1];
+        return changed;
+    }
+
+    public <T> Object[] insertParams(T entity) {
+        return params(insertFields, entity);
+    }
+
+    public <T> Object[] upsertParams(T entity) {
+        return params(upsertFields, entity);
+    }
+
+    // batches bind each row straight from the entity instead of going through an Object[]
+    public <T> void bindInsert(PreparedStatement statement, T entity) throws SQLException {
+        bind(insertFields, statement, entity);
+    }
+
+    public <T> void bindUpsert(PreparedStatement statement, T entity) throws SQLException {
+        bind(upsertFields, statement, entity);
+    }
+
+    private static void bind(List<SqlField> fields, PreparedStatement statement, Object entity) throws SQLException {
+        for (int i = 0; i < fields.size(); i++) fields.get(i).bind(statement, i + 1, entity);
+    }
+
+    private static <T> Object[] params(List<SqlField> fields, T entity) {
+        Object[] params = new Object[fields.size()];
+        for (int i = 0; i < params.length; i++) {
+            SqlField field = fields.get(i);
+            params[i] = field.parameter(field.get(entity));
+        }
+        return params;
+    }
+
+    // non-key columns in SET order, followed by the primary key for the WHERE clause
+    public <T> Object[] updateParams(T entity, SqlField primaryKey) {
+        Object[] params = new Object[updateFields.size() + 1];
+        for (int i = 0; i < updateFields.size(); i++) {
+            SqlField field = updateFields.get(i);
+            params[i] = field.parameter(field.get(entity));
+        }
+        params[params.length - 1] = primaryKey.get(entity);
+        return params;
+    }
+}
@@ -1,374 +1,825 @@
 package dev.sweety.sql4j.impl.table;
 
+import dev.sweety.sql4j.api.SqlUtils;
+import dev.sweety.sql4j.api.connection.Instrumentation;
 import dev.sweety.sql4j.api.connection.SQLConnection;
+import dev.sweety.sql4j.api.connection.Transaction;
+import dev.sweety.sql4j.api.jfr.ForeignKeyEvent;
+import dev.sweety.sql4j.api.jfr.HydrationEvent;
+import dev.sweety.sql4j.api.jfr.StatementEvent;
+import dev.sweety.sql4j.api.query.Query;
+import dev.sweety.sql4j.api.query.Sort;
+import dev.sweety.sql4j.api.table.Cursor;
 import dev.sweety.sql4j.api.table.ITable;
+import dev.sweety.sql4j.impl.cache.Cache;
+import dev.sweety.sql4j.impl.cache.CacheStats;
+import dev.sweety.sql4j.impl.cache.ResultCache;
+import dev.sweety.sql4j.impl.connection.PooledConnection;
 import dev.sweety.sql4j.impl.fields.SqlField;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.util.ArrayList;
-import java.util.List;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
 public record Table<Entity>(String name, Class<Entity> clazz, SQLConnection connection,
-                            SqlField primaryKey, List<SqlField> sqlFields) implements ITable<Entity> {
-
+                            SqlField primaryKey, List<SqlField> sqlFields, StatementPlan plan,
+                            TableOptions options, Cache<String, Object> entityCache,
+                            ResultCache results, WriteBehind<Entity> writeBehind,
+                            Snapshots snapshots, Instantiator<Entity> instantiator) implements ITable<Entity> {
 
     @Override
     public void insert(Entity entity) {
-        StringBuilder query = new StringBuilder("INSERT INTO ");
-        query.append(name()).append("(");
+        connection().update(plan.insert(), statement -> generatedKey(statement, entity), plan.insertParams(entity));
+        written();
+        cache(entity);
+    }
 
-        for (SqlField field : sqlFields()) {
-            if (field.autoIncrement()) continue;
-            query.append(field.name()).append(", ");
-        }
+    // parameters are serialized on the calling thread, only the statement itself is handed to the executor
+    @Override
+    public CompletableFuture<Void> insertAsync(Entity entity) {
+        if (writeBehind != null) return writeBehind.insert(entity);
+
+        return connection().updateAsync(plan.insert(), statement -> generatedKey(statement, entity), plan.insertParams(entity))
+                .thenApply(ignored -> {
+                    written();
+                    cache(entity);
+                    return null;
+                });
+    }
 
-        query.setLength(query.length() - 2);
-        query.append(") VALUES (");
+    private Void generatedKey(PreparedStatement statement, Entity entity) throws SQLException {
+        if (primaryKey == null || !primaryKey.autoIncrement()) return null;
+        try (var rs = statement.getGeneratedKeys()) {
+            if (rs.next()) assignKey(entity, rs.getObject(1));
+            return null;
+        }
+    }
 
-        List<Object> params = new ArrayList<>();
-        for (int i = 0; i < sqlFields().size(); i++) {
-            SqlField field = sqlFields().get(i);
-            if (field.autoIncrement()) continue;
-            params.add(field.get(entity));
-            query.append("?, ");
-        }
-
-        query.setLength(query.length() - 2);
-        query.append(");");
-
-
-        connection().update(query.toString(), statement -> {
-            try (var rs = statement.getGeneratedKeys()) {
-                if (rs.next()) {
-                    Object generatedKey = rs.getObject(1);
-                    for (SqlField field : sqlFields()) {
-                        if (field.hasPrimaryKey()) {
-                            field.set(entity, generatedKey);
-                            break;
-                        }
-                    }
-                }
-                return null;
-            }
-        }, params.toArray(Object[]::new));
+    @Override
+    public void insertAll(Collection<Entity> entities, int batchSize) {
+        boolean generatedKeys = primaryKey != null && primaryKey.autoIncrement();
+        int affected = batch(plan.insert(), entities, batchSize, plan::bindInsert, generatedKeys);
+        written();
+        for (Entity entity : entities) {
+            if (affected < 0) evict(entity);
+            else cache(entity);
+        }
     }
 
     @Override
-    public CompletableFuture<Void> insertAsync(Entity entity) {
-        StringBuilder query = new StringBuilder("INSERT INTO ");
-        query.append(name()).append("(");
+    public CompletableFuture<Void> insertAllAsync(Collection<Entity> entities, int batchSize) {
+        return CompletableFuture.runAsync(() -> insertAll(entities, batchSize), connection.executor());
+    }
 
-        for (SqlField field : sqlFields()) {
-            if (field.autoIncrement()) continue;
-            query.append(field.name()).append(", ");
+    @Override
+    public void upsert(Entity entity) {
+        if (unsaved(entity)) {
+            insert(entity);
+            return;
         }
 
-        query.setLength(query.length() - 2);
-        query.append(") VALUES (");
+        int rows = connection.executeUpdate(plan.upsert(), plan.upsertParams(entity));
+        written();
+        if (rows < 0) evict(entity);
+        else cache(entity);
+    }
 
-        List<Object> params = new ArrayList<>();
-        for (int i = 0; i < sqlFields().size(); i++) {
-            SqlField field = sqlFields().get(i);
-            if (field.autoIncrement()) continue;
-            params.add(field.getAsync(entity).join());
-            query.append("?, ");
-        }
-
-        query.setLength(query.length() - 2);
-        query.append(");");
-
-
-        return connection().updateAsync(query.toString(), statement -> {
-            try (var rs = statement.getGeneratedKeys()) {
-                if (rs.next()) {
-                    Object generatedKey = rs.getObject(1);
-                    for (SqlField field : sqlFields()) {
-                        if (field.hasPrimaryKey()) {
-                            field.setAsync(entity, generatedKey);
-                            break;
-                        }
-                    }
-                }
-                return null;
-            }
-        }, params.toArray(Object[]::new));
+    @Override
+    public CompletableFuture<Void> upsertAsync(Entity entity) {
+        if (unsaved(entity)) return insertAsync(entity);
+
+        return connection.executeUpdateAsync(plan.upsert(), plan.upsertParams(entity)).thenApply(rows -> {
+            written();
+            if (rows < 0) evict(entity);
+            else cache(entity);
+            return null;
+        });
     }
 
+    @Override
+    public void upsertAll(Collection<Entity> entities, int batchSize) {
+        List<Entity> unsaved = new ArrayList<>(), keyed = new ArrayList<>(entities.size());
+        for (Entity entity : entities) (unsaved(entity) ? unsaved : keyed).add(entity);
+
+        if (!unsaved.isEmpty()) insertAll(unsaved, batchSize);
+        if (keyed.isEmpty()) return;
+
+        int affected = batch(plan.upsert(), keyed, batchSize, plan::bindUpsert, false);
+        written();
+        for (Entity entity : keyed) {
+            if (affected < 0) evict(entity);
+            else cache(entity);
+        }
+    }
 
     @Override
-    public List<Entity> selectWhere(String filter, Object... params) {
-        List<Entity> resultList = new ArrayList<>();
+    public CompletableFuture<Void> upsertAllAsync(Collection<Entity> entities, int batchSize) {
+        return CompletableFuture.runAsync(() -> upsertAll(entities, batchSize), connection.executor());
+    }
 
-        try (Connection connection = this.connection.connection(); PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + name() + " WHERE " + filter + ";")) {
+    // a generated key that was never assigned marks a new row, which takes the plain insert so the key is generated
+    private boolean unsaved(Entity entity) {
+        if (plan.upsert() == null) throw new IllegalArgumentException("No primary key found for the object.");
 
-            this.connection.setParameters(statement, params);
+        Object id = primaryKey.get(entity);
+        if (primaryKey.autoIncrement()) return id == null || id instanceof Number number && number.longValue() == 0;
+        if (id == null) throw new IllegalArgumentException("No primary key found for the object.");
+        return false;
+    }
 
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    Entity obj = clazz().getDeclaredConstructor().newInstance();
-                    for (SqlField field : sqlFields()) {
-                        field.set(obj, resultSet.getObject(field.name()));
-                    }
-                    resultList.add(obj);
-                }
-            }
+    @Override
+    public List<Entity> selectWhere(String filter, Object... params) {
+        return cachedQuery(plan.selectWhere(filter), params);
+    }
 
+    @Override
+    public CompletableFuture<List<Entity>> selectWhereAsync(String filter, Object... params) {
+        return CompletableFuture.supplyAsync(() -> selectWhere(filter, params), connection.executor());
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace(System.err);
-        }
-        return resultList;
+    @Override
+    public List<Entity> selectAll() {
+        return cachedQuery(plan.selectAll());
     }
 
     @Override
-    public CompletableFuture<List<Entity>> selectWhereAsync(String filter, Object... params) {
-        return CompletableFuture.supplyAsync(() -> {
-            List<Entity> resultList = new ArrayList<>();
+    public CompletableFuture<List<Entity>> selectAllAsync() {
+        return CompletableFuture.supplyAsync(this::selectAll, connection.executor());
+    }
 
-            CompletableFuture<Connection> connectionFuture = this.connection.connectAsync();
+    @Override
+    public Cursor<Entity> cursor(int fetchSize, String filter, Object... params) {
+        return new TableCursor<>(this, filter == null ? plan.selectAll() : plan.selectWhere(filter), params, fetchSize);
+    }
 
-            try (Connection connection = connectionFuture.join()){
-                try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + name() + " WHERE " + filter + ";")) {
+    @Override
+    public Optional<Entity> findById(Object id) {
+        if (plan.selectById() == null) throw new IllegalArgumentException("No primary key found for the object.");
+        if (id == null) return Optional.empty();
 
-                    this.connection.setParameters(statement, params);
+        Entity cached = cached(id);
+        if (cached != null) return Optional.of(cached);
 
-                    try (ResultSet resultSet = statement.executeQuery()) {
-                        while (resultSet.next()) {
-                            Entity obj = clazz().getDeclaredConstructor().newInstance();
-                            for (SqlField field : sqlFields()) {
-                                field.set(obj, resultSet.getObject(field.name()));
-                            }
-                            resultList.add(obj);
-                        }
-                    }
+        List<Entity> result = query(plan.selectById(), id);
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.getFirst());
+    }
 
+    @Override
+    public CompletableFuture<Optional<Entity>> findByIdAsync(Object id) {
+        Entity cached = cached(id);
+        if (cached != null) return CompletableFuture.completedFuture(Optional.of(cached));
 
-                }
-            } catch (Exception e) {
-                e.printStackTrace(System.err);
-            }
-            return resultList;
-        }, connection.executor());
+        return CompletableFuture.supplyAsync(() -> findById(id), connection.executor());
     }
 
+    // the chunks run one after the other on the calling thread, which may be an executor thread or inside a transaction:
+    // waiting there for chunks handed back to the bounded executor could starve it, and would miss the transaction's rows
     @Override
-    public List<Entity> selectAll() {
-        List<Entity> resultList = new ArrayList<>();
+    public <K> Map<K, Entity> findAllByIds(Collection<K> ids) {
+        Map<K, Entity> result = new LinkedHashMap<>();
+        for (List<K> chunk : idChunks(ids, result)) result.putAll(findChunk(chunk));
+        return result;
+    }
 
-        try (Connection connection = this.connection.connection();
-             PreparedStatement ps = connection.prepareStatement("SELECT * from " + name() + ";");
-             ResultSet rs = ps.executeQuery()) {
+    @Override
+    public <K> CompletableFuture<Map<K, Entity>> findAllByIdsAsync(Collection<K> ids) {
+        Map<K, Entity> cached = new LinkedHashMap<>();
+        List<List<K>> chunks = idChunks(ids, cached);
+        if (chunks.isEmpty()) return CompletableFuture.completedFuture(cached);
+        if (chunks.size() == 1 || !parallelChunks()) {
+            return CompletableFuture.supplyAsync(() -> {
+                for (List<K> chunk : chunks) cached.putAll(findChunk(chunk));
+                return cached;
+            }, connection.executor());
+        }
 
-            List<Object[]> rows = new ArrayList<>();
+        List<CompletableFuture<Map<K, Entity>>> futures = new ArrayList<>(chunks.size());
+        for (List<K> chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> findChunk(chunk), connection.executor()));
+        }
 
-            while (rs.next()) {
-                Object[] values = new Object[sqlFields().size()];
-                int i = 0;
-                for (SqlField field : sqlFields()) {
-                    values[i++] = rs.getObject(field.name());
-                }
-                rows.add(values);
-            }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(done -> {
+            for (CompletableFuture<Map<K, Entity>> future : futures) cached.putAll(future.resultNow());
+            return cached;
+        });
+    }
 
-            // Ora rs e ps sono chiusi, ricostruisci le entity
-            for (Object[] row : rows) {
-                Entity obj = clazz().getDeclaredConstructor().newInstance();
-                int i = 0;
-                for (SqlField field : sqlFields()) {
-                    field.set(obj, row[i++]);
-                }
-                resultList.add(obj);
-            }
+    // a plain connection hands the same JDBC connection to every thread, so chunks only fan out over a pool;
+    // a transaction's connection is bound to its thread, so its chunks stay together there
+    private boolean parallelChunks() {
+        return connection instanceof PooledConnection && !connection.inTransaction();
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace(System.err);
+    // cache hits go straight into the result, only the remaining keys are chunked
+    private <K> List<List<K>> idChunks(Collection<K> ids, Map<K, Entity> hits) {
+        if (plan.selectById() == null) throw new IllegalArgumentException("No primary key found for the object.");
+
+        List<K> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.removeIf(id -> {
+            if (id == null) return true;
+            Entity cached = cached(id);
+            if (cached != null) hits.put(id, cached);
+            return cached != null;
+        });
+
+        List<List<K>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += Hydration.IN_CHUNK) {
+            chunks.add(distinct.subList(from, Math.min(distinct.size(), from + Hydration.IN_CHUNK)));
         }
+        return chunks;
+    }
 
-        return resultList;
+    // rows are matched back to the requested keys by their text form, so 1 and 1L find the same entity
+    private <K> Map<K, Entity> findChunk(List<K> ids) {
+        Map<String, K> keys = new HashMap<>();
+        for (K id : ids) keys.putIfAbsent(String.valueOf(id), id);
+
+        String sql = plan.select(primaryKey.name() + " IN (" + SqlUtils.placeholders(ids.size()) + ")", null, false, false);
+
+        Map<K, Entity> result = new LinkedHashMap<>();
+        for (Entity entity : query(sql, ids.toArray())) {
+            K key = keys.get(String.valueOf(primaryKey.get(entity)));
+            if (key != null) result.put(key, entity);
+        }
+        return result;
     }
 
+    @Override
+    public List<Entity> select(Query<Entity> query) {
+        List<Object> params = new ArrayList<>();
+        return cachedQuery(compile(query, params), params.toArray());
+    }
 
     @Override
-    public CompletableFuture<List<Entity>> selectAllAsync() {
-        return CompletableFuture.supplyAsync(() -> {
-            List<Entity> resultList = new ArrayList<>();
+    public CompletableFuture<List<Entity>> selectAsync(Query<Entity> query) {
+        List<Object> params = new ArrayList<>();
+        String sql = compile(query, params);
+        return CompletableFuture.supplyAsync(() -> cachedQuery(sql, params.toArray()), connection.executor());
+    }
+
+    @Override
+    public Cursor<Entity> cursor(int fetchSize, Query<Entity> query) {
+        List<Object> params = new ArrayList<>();
+        return new TableCursor<>(this, compile(query, params), params.toArray(), fetchSize);
+    }
 
-            CompletableFuture<Connection> connectionFuture = this.connection.connectAsync();
+    private String compile(Query<Entity> query, List<Object> params) {
+        String filter = null;
+        if (query.where() != null) {
+            StringBuilder where = new StringBuilder();
+            query.where().render(where, params, this::column);
+            filter = where.toString();
+        }
 
-            try (Connection connection = connectionFuture.join();
-                 PreparedStatement ps = connection.prepareStatement("SELECT * from " + name() + ";");
-                 ResultSet rs = ps.executeQuery()) {
+        String orderBy = null;
+        if (!query.orderBy().isEmpty()) {
+            StringJoiner joiner = new StringJoiner(", ");
+            for (Sort sort : query.orderBy()) {
+                joiner.add(plan.column(column(sort.column())) + (sort.ascending() ? " ASC" : " DESC"));
+            }
+            orderBy = joiner.toString();
+        }
 
-                List<Object[]> rows = new ArrayList<>();
+        boolean limit = query.limit() >= 0, offset = query.offset() > 0;
+        if (limit || offset) params.add(limit ? query.limit() : Long.MAX_VALUE);
+        if (offset) params.add(query.offset());
 
-                while (rs.next()) {
-                    Object[] values = new Object[sqlFields().size()];
-                    int i = 0;
-                    for (SqlField field : sqlFields()) {
-                        values[i++] = rs.getObject(field.name());
-                    }
-                    rows.add(values);
-                }
+        return plan.select(filter, orderBy, limit, offset);
+    }
+
+    private SqlField column(String column) {
+        SqlField field = field(column);
+        if (field == null) throw new IllegalArgumentException("unknown column " + column + " for table " + name);
+        return field;
+    }
+
+    // matches the column name first, then the java field name
+    public SqlField field(String column) {
+        for (SqlField field : sqlFields) {
+            if (field.name().equalsIgnoreCase(column)) return field;
+        }
+        for (SqlField field : sqlFields) {
+            if (field.column().field().equals(column)) return field;
+        }
+        return null;
+    }
 
-                // Ora rs e ps sono chiusi, ricostruisci le entity
-                for (Object[] row : rows) {
-                    Entity obj = clazz().getDeclaredConstructor().newInstance();
-                    int i = 0;
-                    for (SqlField field : sqlFields()) {
-                        field.set(obj, row[i++]);
+    List<Entity> query(String sql, Object... params) {
+        Hydration hydration = new Hydration();
+        List<Entity> resultList = load(sql, params, hydration);
+        hydration.resolve();
+        return resultList;
+    }
+
+    // reads the rows and releases the connection before any foreign key is resolved;
+    // the entities are cached by hydration.resolve(), once their foreign keys are set
+    List<Entity> load(String sql, Object[] params, Hydration hydration) {
+        List<Entity> resultList = new ArrayList<>();
+        List<Row> rows = instantiator.creator() ? new ArrayList<>() : null;
+
+        Instrumentation instrumentation = connection.instrumentation();
+        long start = instrumentation.start();
+        StatementEvent event = StatementEvent.start();
+        HydrationEvent hydrating = null;
+        try (Connection connection = this.connection.acquire(); PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            this.connection.setParameters(statement, params);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                hydrating = HydrationEvent.start();
+                while (resultSet.next()) {
+                    if (rows != null) {
+                        rows.add(readRow(resultSet));
+                        continue;
                     }
-                    resultList.add(obj);
-                }
 
-            } catch (Exception e) {
-                e.printStackTrace(System.err);
+                    Entity entity = read(resultSet, 1, hydration, true);
+                    hydration.publish(this, entity);
+                    resultList.add(entity);
+                }
             }
+            // rows are counted when read, the deferred foreign keys report their own selects
+            int read = rows != null ? rows.size() : resultList.size();
+            event.finish(name, sql, 1, read, null);
+            instrumentation.executed(name, sql, params, start, read, null);
+
+        } catch (Exception e) {
+            SQLException failure = e instanceof SQLException sqlException ? sqlException : null;
+            event.finish(name, sql, 1, -1, failure);
+            instrumentation.executed(name, sql, params, start, -1, failure);
+            if (e instanceof SQLException sqlException) this.connection.failed(sqlException);
+            SqlUtils.logger.log(System.Logger.Level.ERROR, "query: " + sql + " params:" + Arrays.toString(params));
+            e.printStackTrace(System.err);
+        }
 
-            return resultList;
-        }, connection.executor()); // usa pure il tuo executor
+        if (rows != null) resultList.addAll(create(rows));
+        if (hydrating != null) hydrating.finish(name, clazz, resultList.size());
+        return resultList;
     }
 
+    // a row of an entity built through its constructor: decoded values in sqlFields order, foreign keys still raw
+    record Row(Object[] values) {
+    }
 
-    @Override
-    public void update(Entity entity) {
-        StringBuilder query = new StringBuilder("UPDATE ");
-        query.append(name()).append(" SET ");
-
-        Object primaryKeyValue = null;
-        List<Object> fieldValues = new ArrayList<>();
-
-        for (SqlField field : sqlFields()) {
-            Object value = field.get(entity);
-            if (field.hasPrimaryKey()) {
-                primaryKeyValue = value;
-            } else {
-                query.append(field.name()).append(" = ?, ");
-                fieldValues.add(value);
+    Row readRow(ResultSet resultSet) throws Exception {
+        Object[] values = new Object[sqlFields.size()];
+        for (int i = 0; i < values.length; i++) {
+            SqlField field = sqlFields.get(i);
+            Object value = field.read(resultSet, i + 1);
+            values[i] = field.foreignTable() != null ? value : field.decode(value);
+        }
+        return new Row(values);
+    }
+
+    // the referenced entities are fetched per table for the whole batch, then every row makes one constructor call
+    List<Entity> create(List<Row> rows) {
+        for (int i = 0; i < sqlFields.size(); i++) {
+            SqlField field = sqlFields.get(i);
+            Table<?> target = field.foreignTable();
+            if (target == null) continue;
+
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (Row row : rows) {
+                Object key = row.values()[i];
+                if (key != null) keys.putIfAbsent(String.valueOf(key), key);
+            }
+            if (keys.isEmpty()) continue;
+
+            ForeignKeyEvent event = ForeignKeyEvent.start();
+            Map<String, Object> referenced = references(target, field.foreignColumn(), keys.values());
+            event.finish(target.name(), field.foreignColumn(), keys.size(), referenced.size());
+            for (Row row : rows) {
+                Object key = row.values()[i];
+                if (key != null) row.values()[i] = referenced.get(String.valueOf(key));
             }
         }
 
-        query.setLength(query.length() - 2);
-        query.append(" WHERE ");
+        List<Entity> entities = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Entity entity = instantiator.create(row.values());
+            if (snapshots != null) snapshot(entity);
+            cache(entity);
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    private static <T> Map<String, Object> references(Table<T> target, String column, Collection<Object> keys) {
+        Map<String, Object> referenced = new HashMap<>();
+        SqlField keyField = target.field(column);
+        if (keyField != null && keyField == target.primaryKey()) {
+            target.findAllByIds(keys).forEach((key, entity) -> referenced.put(String.valueOf(key), entity));
+            return referenced;
+        }
 
-        for (SqlField field : sqlFields()) {
-            if (field.hasPrimaryKey()) {
-                query.append(field.name()).append(" = ?");
-                break;
+        List<Object> pending = new ArrayList<>(keys);
+        for (int from = 0; from < pending.size(); from += Hydration.IN_CHUNK) {
+            List<Object> chunk = pending.subList(from, Math.min(pending.size(), from + Hydration.IN_CHUNK));
+            for (T entity : target.selectWhere(column + " IN (" + SqlUtils.placeholders(chunk.size()) + ")", chunk.toArray())) {
+                if (keyField != null) referenced.putIfAbsent(String.valueOf(keyField.get(entity)), entity);
             }
         }
+        return referenced;
+    }
 
-        if (primaryKeyValue == null)
-            throw new IllegalArgumentException("No primary key found for the object.");
+    Entity read(ResultSet resultSet, int column, Hydration hydration, boolean joins) throws Exception {
+        Entity entity = instantiator.create();
 
-        Object o = primaryKeyValue;
-        connection.execute(query.toString(), statement -> {
+        // columns come back in sqlFields order, followed by the joined tables' columns
+        for (SqlField field : sqlFields) {
+            int index = column++;
 
-            connection.setParameters(statement, fieldValues);
+            Table<?> target = field.foreignTable();
+            if (target == null) {
+                field.read(resultSet, index, entity);
+                continue;
+            }
 
-            statement.setObject(fieldValues.size() + 1, o);
+            Object value = field.read(resultSet, index);
+            if (value == null) field.accessor().set(entity, null);
+            else if (!joins || !joined(field)) hydration.defer(entity, field, target, value);
+        }
 
-            statement.executeUpdate();
-            return null;
-        });
+        if (joins) {
+            for (StatementPlan.Join join : plan.joins()) {
+                join.field().accessor().set(entity, readJoined(join.table(), resultSet, column, hydration));
+                column += join.table().sqlFields().size();
+            }
+        }
 
+        Entity interned = hydration.intern(this, entity);
+        if (snapshots != null && interned == entity) hydration.afterResolve(() -> snapshot(entity));
+        return interned;
+    }
 
+    // taken from the hydrated entity in the form changed() compares against: drivers hand back foreign keys
+    // and other OBJECT columns as whatever Java type fits, not the type SqlField#get serializes to
+    private void snapshot(Entity entity) {
+        snapshots.put(entity, plan.updateParams(entity, primaryKey));
     }
 
-    @Override
-    public CompletableFuture<Void> updateAsync(Entity entity) {
-        StringBuilder query = new StringBuilder("UPDATE ");
-        query.append(name()).append(" SET ");
-
-        Object primaryKeyValue = null;
-        List<Object> fieldValues = new ArrayList<>();
-
-        for (SqlField field : sqlFields()) {
-            Object value = field.get(entity);
-            if (field.hasPrimaryKey()) {
-                primaryKeyValue = value;
-            } else {
-                query.append(field.name()).append(" = ?, ");
-                fieldValues.add(value);
-            }
+    private boolean joined(SqlField field) {
+        for (StatementPlan.Join join : plan.joins()) {
+            if (join.field() == field) return true;
         }
+        return false;
+    }
 
-        query.setLength(query.length() - 2);
-        query.append(" WHERE ");
+    private static <T> T readJoined(Table<T> table, ResultSet resultSet, int column, Hydration hydration) throws Exception {
+        // LEFT JOIN without a match leaves every column of the referenced table null
+        int key = table.primaryKey() == null ? 0 : table.sqlFields().indexOf(table.primaryKey());
+        if (resultSet.getObject(column + key) == null) return null;
 
-        for (SqlField field : sqlFields()) {
-            if (field.hasPrimaryKey()) {
-                query.append(field.name()).append(" = ?");
-                break;
-            }
-        }
+        return table.read(resultSet, column, hydration, false);
+    }
+
+    @Override
+    public void update(Entity entity) {
+        if (plan.update() == null) throw new IllegalArgumentException("No primary key found for the object.");
 
-        if (primaryKeyValue == null)
+        Object[] params = plan.updateParams(entity, primaryKey);
+        if (params[params.length - 1] == null)
             throw new IllegalArgumentException("No primary key found for the object.");
 
-        Object o = primaryKeyValue;
-        return connection.executeAsync(query.toString(), statement -> {
+        long columns = changed(entity, params);
+        if (columns == 0) return;
 
-            connection.setParameters(statement, fieldValues);
+        int rows = connection.executeUpdate(plan.update(columns), plan.updateParams(params, columns));
+        written();
+        updated(entity, params, rows);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateAsync(Entity entity) {
+        if (plan.update() == null) throw new IllegalArgumentException("No primary key found for the object.");
+        if (writeBehind != null) return writeBehind.update(entity);
 
-            statement.setObject(fieldValues.size() + 1, o);
+        Object[] params = plan.updateParams(entity, primaryKey);
+        if (params[params.length - 1] == null)
+            throw new IllegalArgumentException("No primary key found for the object.");
+
+        long columns = changed(entity, params);
+        if (columns == 0) return CompletableFuture.completedFuture(null);
 
-            statement.executeUpdate();
+        return connection.executeUpdateAsync(plan.update(columns), plan.updateParams(params, columns)).thenApply(rows -> {
+            written();
+            updated(entity, params, rows);
             return null;
         });
     }
 
     @Override
-    public void delete(Entity entity) {
-        StringBuilder query = new StringBuilder("DELETE FROM ");
-        query.append(name()).append(" WHERE ");
+    public void updateAll(Collection<Entity> entities, int batchSize) {
+        if (plan.update() == null) throw new IllegalArgumentException("No primary key found for the object.");
+
+        // one batch per changed-column set, since each set is its own statement; untouched entities are left out
+        Map<Entity, Object[]> params = new IdentityHashMap<>(entities.size());
+        Map<Long, List<Entity>> groups = new LinkedHashMap<>();
+        for (Entity entity : entities) {
+            Object[] values = plan.updateParams(entity, primaryKey);
+            if (values[values.length - 1] == null)
+                throw new IllegalArgumentException("No primary key found for the object.");
+
+            long columns = changed(entity, values);
+            if (columns == 0) continue;
+
+            params.put(entity, values);
+            groups.computeIfAbsent(columns, ignored -> new ArrayList<>()).add(entity);
+        }
 
-        Object primaryKeyValue = null;
+        for (Map.Entry<Long, List<Entity>> group : groups.entrySet()) {
+            long columns = group.getKey();
+            int affected = batch(plan.update(columns), group.getValue(), batchSize,
+                    (statement, entity) -> connection.setParameters(statement, plan.updateParams(params.get(entity), columns)), false);
+            written();
+            for (Entity entity : group.getValue()) updated(entity, params.get(entity), affected);
+        }
+    }
 
-        for (SqlField field : sqlFields()) {
-            if (field.hasPrimaryKey()) {
-                query.append(field.name()).append(" = ?");
-                primaryKeyValue = field.get(entity);
-                break;
-            }
+    // columns whose value differs from the snapshot, or all of them when the entity is untracked or its key moved
+    private long changed(Entity entity, Object[] params) {
+        Object[] snapshot = snapshots == null ? null : snapshots.get(entity);
+        if (snapshot == null || params.length > Long.SIZE + 1 || !Objects.equals(snapshot[snapshot.length - 1], params[params.length - 1]))
+            return StatementPlan.ALL_COLUMNS;
+
+        long columns = 0;
+        for (int i = 0; i < params.length - 1; i++) {
+            if (!Objects.deepEquals(params[i], snapshot[i])) columns |= 1L << i;
         }
+        return columns;
+    }
+
+    private void updated(Entity entity, Object[] params, int rows) {
+        if (rows < 0) {
+            evict(entity);
+            if (snapshots != null) snapshots.remove(entity);
+        } else {
+            cache(entity);
+            if (snapshots != null) snapshots.put(entity, params);
+        }
+    }
 
+    @Override
+    public CompletableFuture<Void> updateAllAsync(Collection<Entity> entities, int batchSize) {
+        return CompletableFuture.runAsync(() -> updateAll(entities, batchSize), connection.executor());
+    }
+
+    @Override
+    public void delete(Entity entity) {
+        Object primaryKeyValue = primaryKey == null ? null : primaryKey.get(entity);
         if (primaryKeyValue == null) throw new IllegalArgumentException("No primary key found for object.");
 
-        connection.executeUpdate(query.toString(), primaryKeyValue);
+        connection.executeUpdate(plan.delete(), primaryKeyValue);
+        written();
+        evictKey(primaryKeyValue);
     }
 
     @Override
     public CompletableFuture<Integer> deleteAsync(Entity entity) {
-        StringBuilder query = new StringBuilder("DELETE FROM ");
-        query.append(name()).append(" WHERE ");
+        if (writeBehind != null) return writeBehind.delete(entity);
 
-        Object primaryKeyValue = null;
+        Object primaryKeyValue = primaryKey == null ? null : primaryKey.get(entity);
+        if (primaryKeyValue == null) throw new IllegalArgumentException("No primary key found for object.");
 
-        for (SqlField field : sqlFields()) {
-            if (field.hasPrimaryKey()) {
-                query.append(field.name()).append(" = ?");
-                primaryKeyValue = field.get(entity);
-                break;
-            }
-        }
+        return connection.executeUpdateAsync(plan.delete(), primaryKeyValue).thenApply(rows -> {
+            written();
+            evictKey(primaryKeyValue);
+            return rows;
+        });
+    }
 
-        if (primaryKeyValue == null) throw new IllegalArgumentException("No primary key found for object.");
+    @Override
+    public void deleteAll(Collection<Entity> entities, int batchSize) {
+        batchDelete(entities, batchSize);
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteAllAsync(Collection<Entity> entities, int batchSize) {
+        return CompletableFuture.supplyAsync(() -> batchDelete(entities, batchSize), connection.executor());
+    }
+
+    private int batchDelete(Collection<Entity> entities, int batchSize) {
+        if (plan.delete() == null) throw new IllegalArgumentException("No primary key found for object.");
 
-        return connection.executeUpdateAsync(query.toString(), primaryKeyValue);
+        int affected = batch(plan.delete(), entities, batchSize, (statement, entity) -> primaryKey.bind(statement, 1, entity), false);
+        written();
+        for (Entity entity : entities) evict(entity);
+        return affected;
     }
 
     @Override
     public void delete(String filter, Object... params) {
         connection.executeUpdate("DELETE FROM " + name() + " WHERE " + filter, params);
+        written();
+        invalidateCache();
     }
 
+    // the deleted keys are unknown, so the whole cache goes
     @Override
     public CompletableFuture<Integer> deleteAsync(String filter, Object... params) {
-        return connection.executeUpdateAsync("DELETE FROM " + name() + " WHERE " + filter, params);
+        return connection.executeUpdateAsync("DELETE FROM " + name() + " WHERE " + filter, params).thenApply(rows -> {
+            written();
+            invalidateCache();
+            return rows;
+        });
+    }
+
+    // inside a transaction the caches are settled again once it completes: versions move on commit,
+    // and on rollback anything cached from the aborted work is dropped
+    private void written() {
+        results.bump();
+
+        Transaction transaction = Transaction.current(connection);
+        if (transaction != null) transaction.afterCompletion(this, committed -> {
+            results.bump();
+            if (committed) return;
+
+            invalidateCache();
+            if (snapshots != null) snapshots.clear();
+        });
+    }
+
+    public Optional<CacheStats> resultCacheStats() {
+        return results.enabled() ? Optional.of(results.stats()) : Optional.empty();
+    }
+
+    // own writes plus those of every table reachable through foreign keys, since their rows are part of the results
+    long version() {
+        long version = 0;
+        Set<Table<?>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Table<?>> pending = new ArrayDeque<>(List.of(this));
+        while (!pending.isEmpty()) {
+            Table<?> table = pending.pop();
+            if (!seen.add(table)) continue;
+
+            version += table.results().version();
+            for (SqlField field : table.sqlFields()) {
+                Table<?> target = field.foreignTable();
+                if (target != null) pending.push(target);
+            }
+        }
+        return version;
+    }
+
+    private List<Entity> cachedQuery(String sql, Object... params) {
+        // a transaction may see its own uncommitted rows, which must not reach the shared cache
+        if (!results.enabled() || connection.inTransaction()) return query(sql, params);
+
+        // callers get a mutable list either way, as with the cache off; the entities in it are shared between hits
+        long version = version();
+        List<Entity> cached = results.get(sql, params, version);
+        if (cached != null) return new ArrayList<>(cached);
+
+        List<Entity> rows = query(sql, params);
+        results.put(sql, params, version, rows);
+        return rows;
+    }
+
+    public Optional<CacheStats> cacheStats() {
+        return entityCache == null ? Optional.empty() : Optional.of(entityCache.stats());
+    }
+
+    public void invalidateCache() {
+        if (entityCache != null) entityCache.clear();
+    }
+
+    // keys are compared by their text form, like the ids handed to findAllByIds
+    Entity cached(Object id) {
+        if (entityCache == null || id == null) return null;
+        return clazz.cast(entityCache.get(String.valueOf(id)));
+    }
+
+    void cache(Entity entity) {
+        if (entityCache == null) return;
+        if (connection.inTransaction()) {
+            evict(entity);
+            return;
+        }
+
+        Object id = primaryKey.get(entity);
+        if (id != null) entityCache.put(String.valueOf(id), entity);
+    }
+
+    private void evict(Entity entity) {
+        if (entityCache != null) evictKey(primaryKey.get(entity));
+    }
+
+    private void evictKey(Object id) {
+        if (entityCache != null && id != null) entityCache.invalidate(String.valueOf(id));
+    }
+
+    private interface Binder<E> {
+        void bind(PreparedStatement statement, E entity) throws SQLException;
+    }
+
+    private int batch(String query, Collection<Entity> entities, int batchSize, Binder<Entity> params, boolean generatedKeys) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive");
+        if (entities.isEmpty()) return 0;
+
+        Instrumentation instrumentation = connection.instrumentation();
+        long start = instrumentation.start();
+        StatementEvent event = StatementEvent.start();
+        try (Connection connection = this.connection.acquire()) {
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) connection.setAutoCommit(false);
+
+            try (PreparedStatement statement = generatedKeys
+                    ? connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)
+                    : connection.prepareStatement(query)) {
+
+                int affected = generatedKeys && !batchReturnsKeys(connection)
+                        ? insertEach(statement, entities, params)
+                        : executeBatches(statement, entities, batchSize, params, generatedKeys);
+
+                if (autoCommit) connection.commit();
+                event.finish(name, query, entities.size(), affected, null);
+                instrumentation.executedBatch(name, query, entities.size(), start, affected, null);
+                return affected;
+            } catch (SQLException | RuntimeException e) {
+                if (autoCommit) connection.rollback();
+                throw e;
+            } finally {
+                if (autoCommit) connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            event.finish(name, query, entities.size(), -1, e);
+            instrumentation.executedBatch(name, query, entities.size(), start, -1, e);
+            this.connection.failed(e);
+            SqlUtils.logger.log(System.Logger.Level.ERROR, "batch: " + query + " size: " + entities.size());
+            e.printStackTrace(System.err);
+        } catch (RuntimeException e) {
+            // a codec or accessor failed while binding: still reported and still dooms the transaction, then rethrown
+            SQLException failure = new SQLException("batch failed while binding: " + e.getMessage(), e);
+            event.finish(name, query, entities.size(), -1, failure);
+            instrumentation.executedBatch(name, query, entities.size(), start, -1, failure);
+            this.connection.failed(failure);
+            throw e;
+        }
+
+        return -1;
     }
 
+    private int executeBatches(PreparedStatement statement, Collection<Entity> entities, int batchSize,
+                               Binder<Entity> params, boolean generatedKeys) throws SQLException {
+        int affected = 0;
+        List<Entity> chunk = new ArrayList<>(Math.min(batchSize, entities.size()));
+
+        for (Entity entity : entities) {
+            params.bind(statement, entity);
+            statement.addBatch();
+            chunk.add(entity);
+
+            if (chunk.size() == batchSize) {
+                affected += flush(statement, chunk, generatedKeys);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) affected += flush(statement, chunk, generatedKeys);
+        return affected;
+    }
 
+    private int flush(PreparedStatement statement, List<Entity> chunk, boolean generatedKeys) throws SQLException {
+        int affected = 0;
+        for (int count : statement.executeBatch()) {
+            if (count > 0) affected += count;
+        }
+
+        if (generatedKeys) {
+            try (ResultSet rs = statement.getGeneratedKeys()) {
+                for (int i = 0; i < chunk.size() && rs.next(); i++) {
+                    assignKey(chunk.get(i), rs.getObject(1));
+                }
+            }
+        }
+
+        return affected;
+    }
+
+    // drivers that cannot report one key per batched row still run in the single transaction, one row at a time
+    private int insertEach(PreparedStatement statement, Collection<Entity> entities, Binder<Entity> params) throws SQLException {
+        int affected = 0;
+        for (Entity entity : entities) {
+            params.bind(statement, entity);
+            affected += statement.executeUpdate();
+
+            try (ResultSet rs = statement.getGeneratedKeys()) {
+                if (rs.next()) assignKey(entity, rs.getObject(1));
+            }
+        }
+        return affected;
+    }
+
+    // immutable entities such as records keep the key they were built with
+    private void assignKey(Entity entity, Object key) {
+        if (primaryKey.accessor().writable()) primaryKey.set(entity, key);
+    }
+
+    private static boolean batchReturnsKeys(Connection connection) throws SQLException {
+        return !"SQLite".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+    }
 }
@@ -0,0 +1,164 @@
+package dev.sweety.sql4j.impl.table;
+
+import dev.sweety.sql4j.api.SqlUtils;
+import dev.sweety.sql4j.api.connection.BoundConnection;
+import dev.sweety.sql4j.api.connection.Instrumentation;
+import dev.sweety.sql4j.api.jfr.ConnectionAcquireEvent;
+import dev.sweety.sql4j.api.jfr.HydrationEvent;
+import dev.sweety.sql4j.api.jfr.StatementEvent;
+import dev.sweety.sql4j.api.table.Cursor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// hydrates one fetch-sized chunk at a time, resolving the chunk's foreign keys before handing it out
+final class TableCursor<Entity> implements Cursor<Entity> {
+
+    private final Table<Entity> table;
+    private final String sql;
+    private final Object[] params;
+    private final int fetchSize;
+    private final ArrayDeque<Entity> buffer;
+
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private boolean closed;
+
+    // a cursor reports once, when it closes: the time it held its statement and the rows it read;
+    // its statement event spans the same time and is committed from the thread that closes it
+    private final Instrumentation instrumentation;
+    private final StatementEvent event;
+    private final long start;
+    private long read;
+    private SQLException failure;
+
+    TableCursor(Table<Entity> table, String sql, Object[] params, int fetchSize) {
+        if (fetchSize < 1) throw new IllegalArgumentException("fetchSize must be positive");
+
+        this.table = table;
+        this.sql = sql;
+        this.params = params;
+        this.fetchSize = fetchSize;
+        this.buffer = new ArrayDeque<>(fetchSize);
+        this.instrumentation = table.connection().instrumentation();
+        this.start = instrumentation.start();
+        this.event = StatementEvent.start();
+
+        try {
+            // a dedicated connection that statements issued through the table never close; inside a transaction
+            // the cursor reads through the transaction's connection instead
+            if (table.connection().inTransaction()) connection = table.connection().acquire();
+            else {
+                ConnectionAcquireEvent acquiring = ConnectionAcquireEvent.start();
+                connection = table.connection().connect();
+                acquiring.finish(table.connection(), false);
+                instrumentation.acquired(start);
+            }
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            table.connection().setParameters(statement, params);
+            resultSet = statement.executeQuery();
+        } catch (SQLException e) {
+            failure = e;
+            table.connection().failed(e);
+            SqlUtils.logger.log(System.Logger.Level.ERROR, "query: " + sql + " params:" + Arrays.toString(params));
+            e.printStackTrace(System.err);
+            close();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (buffer.isEmpty() && !closed) fill();
+        return !buffer.isEmpty();
+    }
+
+    @Override
+    public Entity next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return buffer.poll();
+    }
+
+    private void fill() {
+        HydrationEvent hydrating = HydrationEvent.start();
+        Hydration hydration = new Hydration();
+        List<Table.Row> rows = new ArrayList<>();
+        boolean creator = table.instantiator().creator();
+        Connection connection = this.connection;
+        try {
+            while (buffer.size() + rows.size() < fetchSize && resultSet.next()) {
+                if (creator) rows.add(table.readRow(resultSet));
+                else buffer.add(table.read(resultSet, 1, hydration, true));
+            }
+            read += buffer.size() + rows.size();
+            // the last chunk still resolves its foreign keys on the connection, so it is released afterwards
+            if (buffer.size() + rows.size() < fetchSize) exhausted();
+        } catch (Exception e) {
+            if (e instanceof SQLException sqlException) failure = sqlException;
+            SqlUtils.logger.log(System.Logger.Level.ERROR, "query: " + sql);
+            e.printStackTrace(System.err);
+            exhausted();
+        }
+
+        // lookups through the table's connection run on the cursor's own, so a pool of one cannot wait on itself;
+        // tables on another SQLConnection borrow from theirs as usual
+        BoundConnection bound = connection == null || table.connection().inTransaction() ? null
+                : BoundConnection.bind(table.connection(), connection);
+        try {
+            hydration.resolve();
+            if (!rows.isEmpty()) buffer.addAll(table.create(rows));
+        } finally {
+            if (bound != null) bound.close();
+            if (closed) release();
+        }
+        hydrating.finish(table.name(), table.clazz(), buffer.size());
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        exhausted();
+        release();
+    }
+
+    private void exhausted() {
+        if (closed) return;
+        closed = true;
+        event.finish(table.name(), sql, 1, failure != null ? -1 : read, failure);
+        instrumentation.executed(table.name(), sql, params, start, failure != null ? -1 : read, failure);
+    }
+
+    // closed in reverse order of opening; a failure does not keep the others open and is logged with the rest attached
+    private void release() {
+        SQLException failure = close(resultSet, null);
+        failure = close(statement, failure);
+        failure = close(connection, failure);
+        resultSet = null;
+        statement = null;
+        connection = null;
+
+        if (failure == null) return;
+        SqlUtils.logger.log(System.Logger.Level.ERROR, "failed to close cursor: " + sql);
+        failure.printStackTrace(System.err);
+    }
+
+    private static SQLException close(AutoCloseable resource, SQLException failure) {
+        if (resource == null) return failure;
+        try {
+            resource.close();
+        } catch (Exception e) {
+            SQLException error = e instanceof SQLException sqlException ? sqlException : new SQLException(e);
+            if (failure == null) return error;
+            failure.addSuppressed(error);
+        }
+        return failure;
+    }
+}
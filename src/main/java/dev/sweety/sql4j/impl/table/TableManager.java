@@ -2,7 +2,12 @@ package dev.sweety.sql4j.impl.table;
 
 import dev.sweety.sql4j.api.SqlUtils;
 import dev.sweety.sql4j.api.connection.SQLConnection;
+import dev.sweety.sql4j.api.field.Column;
+import dev.sweety.sql4j.api.table.EntityMapper;
 import dev.sweety.sql4j.api.table.Info;
+import dev.sweety.sql4j.impl.cache.Cache;
+import dev.sweety.sql4j.impl.cache.ResultCache;
+import dev.sweety.sql4j.impl.fields.FieldAccessor;
 import dev.sweety.sql4j.impl.fields.SqlField;
 
 import java.lang.reflect.Field;
@@ -20,53 +25,105 @@ public class TableManager {
     }
 
     public static <T> CompletableFuture<Table<T>> createAsync(Class<T> clazz, SQLConnection connection) {
-        return CompletableFuture.supplyAsync(() -> create(clazz, connection),connection.executor());
+        return createAsync(clazz, connection, TableOptions.defaults());
+    }
+
+    public static <T> CompletableFuture<Table<T>> createAsync(Class<T> clazz, SQLConnection connection, TableOptions options) {
+        return CompletableFuture.supplyAsync(() -> create(clazz, connection, options), connection.executor());
     }
 
     public static <T> Table<T> create(Class<T> clazz, SQLConnection connection) {
+        return create(clazz, connection, TableOptions.defaults());
+    }
+
+    // options only apply the first time a class is registered
+    public static <T> Table<T> create(Class<T> clazz, SQLConnection connection, TableOptions options) {
         Optional<Table<T>> optional = get(clazz);
         if (optional.isPresent()) return optional.get();
 
-        Info info = clazz.getAnnotation(Info.class);
-        String name = info != null ? info.name() : clazz.getSimpleName();
+        // a generated mapper already knows the table name and every column, and accesses the fields directly,
+        // so the entity is never reflected on
+        EntityMapper<T> mapper = Mappers.of(clazz);
+
+        Info info = mapper != null ? null : clazz.getAnnotation(Info.class);
+        String name = mapper != null ? mapper.table() : info != null ? info.name() : clazz.getSimpleName();
 
         StringBuilder queryBuilder = new StringBuilder("CREATE TABLE IF NOT EXISTS ");
         queryBuilder.append(name).append("(");
 
-        Field[] fields = clazz.getDeclaredFields();
-
         List<SqlField> sqlFields = new ArrayList<>();
-        SqlField primaryKey = null;
-
-        for (Field field : fields) {
-            if (!SqlUtils.isSqlField(field)) continue;
+        if (mapper != null) {
+            List<Column> columns = mapper.columns();
+            for (int i = 0; i < columns.size(); i++) {
+                sqlFields.add(SqlField.sqlField(columns.get(i), connection, FieldAccessor.of(mapper, i)));
+            }
+        } else {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (SqlUtils.isSqlField(field)) sqlFields.add(SqlField.sqlField(field, connection));
+            }
+        }
 
-            SqlField sqlField = SqlField.sqlField(field, connection);
-            sqlFields.add(sqlField);
+        SqlField primaryKey = null;
 
+        for (SqlField sqlField : sqlFields) {
             if (sqlField.hasPrimaryKey())
                 primaryKey = sqlField;
 
             queryBuilder.append(sqlField.query()).append(", ");
         }
 
+        // table constraints must follow every column definition
+        for (SqlField sqlField : sqlFields) {
+            if (sqlField.foreignKey() == null) continue;
+
+            boolean self = sqlField.column().type() == clazz;
+            String table = sqlField.foreignKey().table().isBlank() && self ? name : sqlField.foreignKey().table();
+            String tableId = sqlField.foreignKey().tableId().isBlank() && self && primaryKey != null ? primaryKey.name() : sqlField.foreignKey().tableId();
+            if (table.isBlank() || tableId.isBlank()) continue;
+
+            queryBuilder.append("FOREIGN KEY (").append(sqlField.name()).append(") REFERENCES ")
+                    .append(table).append("(").append(tableId).append("), ");
+        }
+
         queryBuilder.setLength(queryBuilder.length() - 2);
 
         queryBuilder.append(");");
 
-        Table<T> table = new Table<>(name, clazz, connection, primaryKey, sqlFields);
+        Instantiator<T> instantiator = Instantiator.of(clazz, sqlFields, mapper);
+
+        Cache<String, Object> entityCache = options.entityCache() == null || primaryKey == null ? null : options.entityCache().get();
+
+        // write-behind coalesces by primary key, so it needs one
+        WriteBehind<T> writeBehind = options.writeBehind() == null || primaryKey == null ? null : new WriteBehind<>(options.writeBehind());
+
+        Table<T> table = new Table<>(name, clazz, connection, primaryKey, List.copyOf(sqlFields),
+                StatementPlan.of(name, sqlFields, primaryKey, connection.dialect(), !instantiator.creator()), options, entityCache,
+                new ResultCache(options.resultCache(), options.maxCachedRows()), writeBehind,
+                options.dirtyTracking() && primaryKey != null ? new Snapshots() : null, instantiator);
         tables.put(clazz, table);
 
         String query = queryBuilder.toString();
         connection.execute(query);
+        if (writeBehind != null) writeBehind.start(table);
         return table;
     }
 
     public static <T> void drop(Class<T> clazz, SQLConnection connection) {
-        Info info = clazz.getAnnotation(Info.class);
-        String name = info != null ? info.name() : clazz.getSimpleName();
+        String name = get(clazz).map(Table::name).orElseGet(() -> {
+            Info info = clazz.getAnnotation(Info.class);
+            return info != null ? info.name() : clazz.getSimpleName();
+        });
+
+        // queued writes are drained first so their futures complete against the table they were made for
+        get(clazz).map(Table::writeBehind).ifPresent(WriteBehind::close);
 
         connection.execute("DROP TABLE " + name);
+        get(clazz).ifPresent(table -> {
+            table.invalidateCache();
+            table.results().bump();
+        });
+        // the next create() runs the DDL again and starts a fresh write-behind queue
+        tables.remove(clazz);
     }
 
     public static <T> CompletableFuture<Void> dropAsync(Class<T> clazz, SQLConnection connection) {
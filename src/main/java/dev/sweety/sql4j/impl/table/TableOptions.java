@@ -0,0 +1,43 @@
+package dev.sweety.sql4j.impl.table;
+
+import dev.sweety.sql4j.impl.cache.Cache;
+import dev.sweety.sql4j.impl.cache.CacheSettings;
+import dev.sweety.sql4j.impl.cache.LruCache;
+
+import java.util.function.Supplier;
+
+// a null supplier or settings disables that feature; each table built with these options gets its own caches and queue
+public record TableOptions(Supplier<? extends Cache<String, Object>> entityCache, CacheSettings resultCache,
+                           int maxCachedRows, WriteBehindSettings writeBehind, boolean dirtyTracking) {
+
+    public static final int DEFAULT_MAX_CACHED_ROWS = 1000;
+
+    public static TableOptions defaults() {
+        return new TableOptions(null, null, DEFAULT_MAX_CACHED_ROWS, null, false);
+    }
+
+    public TableOptions entityCache(CacheSettings settings) {
+        return new TableOptions(() -> new LruCache<>(settings), resultCache, maxCachedRows, writeBehind, dirtyTracking);
+    }
+
+    public TableOptions entityCache(Supplier<? extends Cache<String, Object>> entityCache) {
+        return new TableOptions(entityCache, resultCache, maxCachedRows, writeBehind, dirtyTracking);
+    }
+
+    public TableOptions resultCache(CacheSettings resultCache) {
+        return new TableOptions(entityCache, resultCache, maxCachedRows, writeBehind, dirtyTracking);
+    }
+
+    public TableOptions maxCachedRows(int maxCachedRows) {
+        return new TableOptions(entityCache, resultCache, maxCachedRows, writeBehind, dirtyTracking);
+    }
+
+    public TableOptions writeBehind(WriteBehindSettings writeBehind) {
+        return new TableOptions(entityCache, resultCache, maxCachedRows, writeBehind, dirtyTracking);
+    }
+
+    // update() then sends only the columns changed since the entity was loaded or last updated
+    public TableOptions dirtyTracking(boolean dirtyTracking) {
+        return new TableOptions(entityCache, resultCache, maxCachedRows, writeBehind, dirtyTracking);
+    }
+}
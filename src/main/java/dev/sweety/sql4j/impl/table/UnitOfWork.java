@@ -0,0 +1,117 @@
+package dev.sweety.sql4j.impl.table;
+
+import dev.sweety.sql4j.api.connection.Transaction;
+import dev.sweety.sql4j.impl.fields.SqlField;
+
+import java.util.*;
+
+// collects entity changes during a transaction and writes them right before it commits: inserts and updates
+// with referenced tables first, deletes with referencing tables first, one batch per table and operation
+public final class UnitOfWork {
+
+    private enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final Map<Object, Operation> pending = new IdentityHashMap<>();
+    private final List<Object> order = new ArrayList<>();
+
+    private UnitOfWork() {
+    }
+
+    public static UnitOfWork of(Transaction transaction) {
+        UnitOfWork work = new UnitOfWork();
+        transaction.beforeCommit(work::flush);
+        return work;
+    }
+
+    public UnitOfWork registerNew(Object entity) {
+        return register(entity, Operation.INSERT);
+    }
+
+    public UnitOfWork registerDirty(Object entity) {
+        // an entity that is still to be inserted is written with its latest state anyway
+        if (pending.get(entity) == Operation.INSERT) return this;
+        return register(entity, Operation.UPDATE);
+    }
+
+    public UnitOfWork registerDeleted(Object entity) {
+        // inserting and deleting in the same unit is no work at all
+        if (pending.get(entity) == Operation.INSERT) {
+            pending.remove(entity);
+            order.removeIf(other -> other == entity);
+            return this;
+        }
+        return register(entity, Operation.DELETE);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    private UnitOfWork register(Object entity, Operation operation) {
+        table(entity.getClass());
+        if (pending.put(entity, operation) == null) order.add(entity);
+        return this;
+    }
+
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        Map<Table<?>, EnumMap<Operation, List<Object>>> byTable = new LinkedHashMap<>();
+        for (Object entity : order) {
+            byTable.computeIfAbsent(table(entity.getClass()), table -> new EnumMap<>(Operation.class))
+                    .computeIfAbsent(pending.get(entity), operation -> new ArrayList<>()).add(entity);
+        }
+        pending.clear();
+        order.clear();
+
+        List<Table<?>> tables = dependencyOrder(byTable.keySet());
+
+        for (Table<?> table : tables) write(table, byTable.get(table).get(Operation.INSERT), Operation.INSERT);
+        for (Table<?> table : tables) write(table, byTable.get(table).get(Operation.UPDATE), Operation.UPDATE);
+        for (Table<?> table : tables.reversed()) write(table, byTable.get(table).get(Operation.DELETE), Operation.DELETE);
+    }
+
+    private static <T> void write(Table<T> table, List<Object> entities, Operation operation) {
+        if (entities == null || entities.isEmpty()) return;
+
+        List<T> typed = new ArrayList<>(entities.size());
+        for (Object entity : entities) typed.add(table.clazz().cast(entity));
+
+        switch (operation) {
+            case INSERT -> table.insertAll(typed);
+            case UPDATE -> table.updateAll(typed);
+            case DELETE -> table.deleteAll(typed);
+        }
+    }
+
+    // referenced tables before the tables pointing at them; self references and cycles keep registration order
+    private static List<Table<?>> dependencyOrder(Collection<Table<?>> tables) {
+        List<Table<?>> sorted = new ArrayList<>(tables.size());
+        Set<Table<?>> visiting = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Table<?>> done = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Table<?>> wanted = Collections.newSetFromMap(new IdentityHashMap<>());
+        wanted.addAll(tables);
+
+        for (Table<?> table : tables) visit(table, wanted, visiting, done, sorted);
+        return sorted;
+    }
+
+    private static void visit(Table<?> table, Set<Table<?>> wanted, Set<Table<?>> visiting, Set<Table<?>> done, List<Table<?>> sorted) {
+        if (done.contains(table) || !visiting.add(table)) return;
+
+        for (SqlField field : table.sqlFields()) {
+            Table<?> target = field.foreignTable();
+            if (target != null && target != table && wanted.contains(target)) visit(target, wanted, visiting, done, sorted);
+        }
+
+        visiting.remove(table);
+        done.add(table);
+        sorted.add(table);
+    }
+
+    private static Table<?> table(Class<?> clazz) {
+        return TableManager.get(clazz).orElseThrow(() -> new IllegalArgumentException("no table registered for " + clazz.getName()));
+    }
+}
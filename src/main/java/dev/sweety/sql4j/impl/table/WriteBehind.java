@@ -0,0 +1,246 @@
+package dev.sweety.sql4j.impl.table;
+
+import dev.sweety.sql4j.api.SqlUtils;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// queues the single-entity async writes of one table and writes them as batches in one transaction.
+// Rows are keyed by primary key (or by identity while an insert is pending) so repeated writes to the same
+// row collapse into one statement that carries the entity's state at flush time
+public final class WriteBehind<Entity> implements AutoCloseable {
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Sql4J-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // flushes never wait on the connection's executor: a writer blocked on a full queue may be holding one of its
+    // bounded slots, and the flush that would unblock it must not need another. Each queue flushes one at a time
+    private static final ExecutorService FLUSHES = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("Sql4J-write-behind-flush-", 0).factory());
+
+    private enum Kind {INSERT, UPDATE, DELETE}
+
+    private static final class Write<Entity> {
+        private Kind kind;
+        private Entity entity;
+        private final List<CompletableFuture<Integer>> futures = new ArrayList<>(1);
+
+        private Write(Kind kind, Entity entity) {
+            this.kind = kind;
+            this.entity = entity;
+        }
+    }
+
+    private record Identity(Object entity) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Identity other && other.entity == entity;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(entity);
+        }
+    }
+
+    private final WriteBehindSettings settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private LinkedHashMap<Object, Write<Entity>> pending = new LinkedHashMap<>();
+    private Table<Entity> table;
+    private ScheduledFuture<?> timer;
+    private volatile boolean closed;
+
+    WriteBehind(WriteBehindSettings settings) {
+        this.settings = settings;
+    }
+
+    void start(Table<Entity> table) {
+        this.table = table;
+        long interval = settings.interval().toMillis();
+        this.timer = TIMER.scheduleWithFixedDelay(this::trigger, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public WriteBehindSettings settings() {
+        return settings;
+    }
+
+    public int pending() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    CompletableFuture<Void> insert(Entity entity) {
+        return enqueue(Kind.INSERT, entity).thenApply(rows -> null);
+    }
+
+    CompletableFuture<Void> update(Entity entity) {
+        return enqueue(Kind.UPDATE, entity).thenApply(rows -> null);
+    }
+
+    // a batch reports no per-row counts, so a committed delete completes with 1
+    CompletableFuture<Integer> delete(Entity entity) {
+        return enqueue(Kind.DELETE, entity);
+    }
+
+    // an entity with a pending insert is still known by identity, its generated key is not assigned yet
+    private Object key(Kind kind, Entity entity) {
+        Identity identity = new Identity(entity);
+        if (kind == Kind.INSERT || pending.containsKey(identity)) return identity;
+
+        Object id = table.primaryKey() == null ? null : table.primaryKey().get(entity);
+        if (id == null) throw new IllegalArgumentException("No primary key found for the object.");
+        return String.valueOf(id);
+    }
+
+    private CompletableFuture<Integer> enqueue(Kind kind, Entity entity) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        int size;
+
+        lock.lock();
+        try {
+            Object key = key(kind, entity);
+            while (!closed && !pending.containsKey(key) && pending.size() >= settings.maxPending()) {
+                trigger();
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) return CompletableFuture.failedFuture(new IllegalStateException("Write-behind queue of " + table.name() + " is closed"));
+
+            Write<Entity> write = pending.get(key);
+            if (write == null) {
+                write = new Write<>(kind, entity);
+                pending.put(key, write);
+            } else if (write.kind == Kind.INSERT && kind == Kind.DELETE) {
+                // the row never reached the database, so neither statement has to run
+                pending.remove(key);
+                for (CompletableFuture<Integer> inserted : write.futures) inserted.complete(0);
+                future.complete(0);
+                return future;
+            } else if (write.kind == Kind.DELETE && kind != Kind.DELETE) {
+                // the row is about to go, writing it afterwards would need the delete and the write kept in order
+                future.completeExceptionally(new IllegalStateException("Row " + key + " of " + table.name()
+                        + " has a pending delete, flush() before writing it again"));
+                return future;
+            } else if (write.kind != Kind.DELETE) {
+                // an update joins a pending insert; a later update or delete replaces a pending update
+                if (write.kind == Kind.UPDATE) write.kind = kind;
+                write.entity = entity;
+            }
+            write.futures.add(future);
+            size = pending.size();
+        } finally {
+            lock.unlock();
+        }
+
+        if (size >= settings.batchSize()) trigger();
+        return future;
+    }
+
+    // hands one flush to the flush threads unless one is already on its way
+    private void trigger() {
+        if (pending() == 0 || !scheduled.compareAndSet(false, true)) return;
+
+        try {
+            FLUSHES.execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    scheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+            SqlUtils.logger.log(System.Logger.Level.ERROR, "write-behind: flush of " + table.name() + " rejected");
+            e.printStackTrace(System.err);
+        }
+    }
+
+    // writes everything queued before and during the call; futures complete once their transaction commits
+    public void flush() {
+        flushLock.lock();
+        try {
+            for (List<Write<Entity>> writes = drain(); !writes.isEmpty(); writes = drain()) write(writes);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private List<Write<Entity>> drain() {
+        lock.lock();
+        try {
+            List<Write<Entity>> writes = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+            notFull.signalAll();
+            return writes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<Write<Entity>> writes) {
+        try {
+            table.connection().transaction(transaction -> {
+                // consecutive writes of the same kind share one JDBC batch, queue order is kept between runs
+                int from = 0;
+                for (int i = 1; i <= writes.size(); i++) {
+                    if (i < writes.size() && writes.get(i).kind == writes.get(from).kind) continue;
+
+                    List<Entity> entities = new ArrayList<>(i - from);
+                    for (Write<Entity> write : writes.subList(from, i)) entities.add(write.entity);
+
+                    switch (writes.get(from).kind) {
+                        case INSERT -> table.insertAll(entities, settings.batchSize());
+                        case UPDATE -> table.updateAll(entities, settings.batchSize());
+                        case DELETE -> table.deleteAll(entities, settings.batchSize());
+                    }
+                    from = i;
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            SqlUtils.logger.log(System.Logger.Level.ERROR, "write-behind: flush of " + table.name() + " size: " + writes.size());
+            e.printStackTrace(System.err);
+            for (Write<Entity> write : writes) {
+                for (CompletableFuture<Integer> future : write.futures) future.completeExceptionally(e);
+            }
+            return;
+        }
+
+        for (Write<Entity> write : writes) {
+            for (CompletableFuture<Integer> future : write.futures) future.complete(1);
+        }
+    }
+
+    // stops accepting writes and drains what is left
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (timer != null) timer.cancel(false);
+        flush();
+    }
+}
@@ -0,0 +1,30 @@
+package dev.sweety.sql4j.impl.table;
+
+import java.time.Duration;
+
+// pending writes are flushed once batchSize distinct rows are queued or every interval, whichever comes first;
+// writers block while maxPending distinct rows are already waiting
+public record WriteBehindSettings(int maxPending, int batchSize, Duration interval) {
+
+    public WriteBehindSettings {
+        if (maxPending <= 0) throw new IllegalArgumentException("maxPending must be > 0");
+        if (batchSize <= 0 || batchSize > maxPending) throw new IllegalArgumentException("batchSize must be > 0 and <= maxPending");
+        if (interval == null || interval.isNegative() || interval.isZero()) throw new IllegalArgumentException("interval must be > 0");
+    }
+
+    public static WriteBehindSettings defaults() {
+        return new WriteBehindSettings(10_000, 500, Duration.ofMillis(200));
+    }
+
+    public WriteBehindSettings maxPending(int maxPending) {
+        return new WriteBehindSettings(maxPending, batchSize, interval);
+    }
+
+    public WriteBehindSettings batchSize(int batchSize) {
+        return new WriteBehindSettings(maxPending, batchSize, interval);
+    }
+
+    public WriteBehindSettings interval(Duration interval) {
+        return new WriteBehindSettings(maxPending, batchSize, interval);
+    }
+}
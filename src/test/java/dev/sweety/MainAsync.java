@@ -1,6 +1,7 @@
 package dev.sweety;
 
 import com.google.gson.Gson;
+import dev.sweety.sql4j.impl.connection.PooledConnection;
 import dev.sweety.sql4j.impl.connection.SQLiteConnection;
 import dev.sweety.sql4j.impl.table.Table;
 import dev.sweety.sql4j.impl.table.TableManager;
@@ -16,7 +17,7 @@ public class MainAsync {
 
         Gson gson = new Gson().newBuilder().setPrettyPrinting().disableHtmlEscaping().create();
 
-        SQLiteConnection connection = new SQLiteConnection("database.async");
+        PooledConnection connection = new PooledConnection(new SQLiteConnection("database.async"));
 
         Table<User> userTable = TableManager.create(User.class, connection);
         Table<Order> orderTable = TableManager.create(Order.class, connection);